@@ -0,0 +1,35 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.rest.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the catalogs the benchmarks run against.
+ * Books are spread over a fixed number of authors and over all the categories, so that filters select a
+ * predictable share of the catalog.
+ *
+ * @author chetanbhatt
+ */
+final class BenchmarkData {
+
+    static final int AUTHORS = 100;
+
+    private BenchmarkData() {
+    }
+
+    static List<Book> books(int size) {
+        Category[] categories = Category.values();
+        List<Book> books = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            books.add(new Book("Book " + i, author(i % AUTHORS), categories[i % categories.length]));
+        }
+        return books;
+    }
+
+    static String author(int index) {
+        return "Author " + index;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.BookstoreApplication;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookView;
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetching pages of books through the service, against an H2 catalog seeded once per trial.
+ * The application context is started without the web server.
+ *
+ * @author chetanbhatt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    private static final int SEED_CHUNK_SIZE = 10000;
+
+    @Param({"10000", "100000"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+
+    private BookService bookService;
+
+    private PageRequest deepPage;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // devtools restarts the application in a new class loader, which would measure a different context
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(BookstoreApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark", "logging.level.com.example.bookstore=WARN")
+                .run();
+        bookService = context.getBean(BookService.class);
+        List<Book> books = BenchmarkData.books(catalogSize);
+        for (int i = 0; i < books.size(); i += SEED_CHUNK_SIZE) {
+            bookService.addAll(books.subList(i, Math.min(i + SEED_CHUNK_SIZE, books.size())));
+        }
+        deepPage = PageRequest.of(catalogSize / PAGE_SIZE / 2, PAGE_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<BookView> getBooks() {
+        return bookService.getBooks(null, null, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Page<BookView> getBooksDeepPage() {
+        return bookService.getBooks(null, null, deepPage);
+    }
+
+    @Benchmark
+    public Page<BookView> getBooksByAuthorAndCategory() {
+        return bookService.getBooks(BenchmarkData.author(7), Category.values()[7 % Category.values().length].getValue(),
+                PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Slice<BookView> getBookSliceWithoutCount() {
+        return bookService.getBookSlice(null, null, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Slice<BookView> getBooksByKeyset() {
+        return bookService.getBooks(null, null, null, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.BookstoreApplication;
+import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.exception.ErrorCode;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.IngestResult;
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.service.BookIngestService;
+import com.example.bookstore.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sustained insert throughput of the Add Book path, one book per call from concurrent producers, either added
+ * synchronously or queued for the write-behind batching of bookstore.ingest.async. Each invocation adds the given
+ * number of new books and, when queued, waits until all of them are written, hence the score is the time to store
+ * them. A producer finding the queue full backs off and retries, as a client answered with a 429 would.
+ *
+ * @author chetanbhatt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IngestBenchmark {
+
+    private static final long BACK_OFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Param({"false", "true"})
+    private boolean async;
+
+    @Param({"8"})
+    private int producers;
+
+    @Param({"20000"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+
+    private BookService bookService;
+
+    private BookIngestService bookIngestService;
+
+    private ExecutorService producerExecutor;
+
+    private int invocation;
+
+    private List<List<Book>> batches;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // devtools restarts the application in a new class loader, which would measure a different context
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(BookstoreApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:ingest", "logging.level.com.example.bookstore=WARN",
+                        "bookstore.ingest.async=" + async)
+                .run();
+        bookService = context.getBean(BookService.class);
+        bookIngestService = context.getBean(BookIngestService.class);
+        producerExecutor = Executors.newFixedThreadPool(producers);
+    }
+
+    /**
+     * New books for each invocation, as books already stored would be rejected as duplicates.
+     */
+    @Setup(Level.Invocation)
+    public void newBooks() {
+        Category[] categories = Category.values();
+        batches = new ArrayList<>(producers);
+        for (int producer = 0; producer < producers; producer++) {
+            batches.add(new ArrayList<>(books / producers));
+        }
+        for (int i = 0; i < books; i++) {
+            batches.get(i % producers).add(new Book("Book " + invocation + "-" + i, BenchmarkData.author(i % BenchmarkData.AUTHORS),
+                    categories[i % categories.length]));
+        }
+        invocation++;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        producerExecutor.shutdown();
+        context.close();
+    }
+
+    @Benchmark
+    public int addBooks() throws Exception {
+        List<Future<Integer>> futures = new ArrayList<>(producers);
+        for (List<Book> batch : batches) {
+            futures.add(producerExecutor.submit(() -> async ? submit(batch) : add(batch)));
+        }
+        int added = 0;
+        for (Future<Integer> future : futures) {
+            added += future.get();
+        }
+        return added;
+    }
+
+    private int add(List<Book> batch) {
+        for (Book book : batch) {
+            bookService.add(book);
+        }
+        return batch.size();
+    }
+
+    private int submit(List<Book> batch) {
+        for (Book book : batch) {
+            while (true) {
+                try {
+                    bookIngestService.submit(book);
+                    break;
+                } catch (BookStoreException e) {
+                    if (e.getErrorCode() != ErrorCode.INGEST_QUEUE_FULL) {
+                        throw e;
+                    }
+                    LockSupport.parkNanos(BACK_OFF_NANOS);
+                }
+            }
+        }
+        // books are written in order, hence the last one is written after the others
+        String last = batch.get(batch.size() - 1).getId();
+        while (bookIngestService.getResult(last).getStatus() == IngestResult.Status.PENDING) {
+            LockSupport.parkNanos(BACK_OFF_NANOS);
+        }
+        return batch.size();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.transformer.ModelTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of a page of domain books into rest books.
+ *
+ * @author chetanbhatt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelTransformerBenchmark {
+
+    @Param({"50", "500", "1000", "10000"})
+    private int pageSize;
+
+    private List<Book> books;
+
+    @Setup
+    public void setup() {
+        books = BenchmarkData.books(pageSize);
+    }
+
+    @Benchmark
+    public List<com.example.bookstore.rest.Book> fromModelListToRestList() {
+        return ModelTransformer.fromModelListToRestList.apply(books);
+    }
+}
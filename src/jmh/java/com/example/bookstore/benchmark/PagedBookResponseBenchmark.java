@@ -0,0 +1,79 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.rest.PagedBookResponse;
+import com.example.bookstore.transformer.BookPageJsonWriter;
+import com.example.bookstore.transformer.BookPageResponse;
+import com.example.bookstore.transformer.ModelTransformer;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a paged response of books, with an object mapper configured as the one of Spring MVC.
+ * The rest models are converted and serialized by reflection, the books of the db are written by the BookPageJsonWriter.
+ *
+ * @author chetanbhatt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PagedBookResponseBenchmark {
+
+    @Param({"50", "1000", "10000"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private List<Book> books;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        books = BenchmarkData.books(pageSize);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        PagedBookResponse response = new PagedBookResponse();
+        response.setBooks(ModelTransformer.fromModelListToRestList.apply(books));
+        response.setCurrentPage(0);
+        response.setTotalPages(1);
+        response.setTotalItems((long) pageSize);
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        BookPageResponse response = new BookPageResponse(books);
+        response.setCurrentPage(0);
+        response.setTotalPages(1);
+        response.setTotalItems((long) pageSize);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            BookPageJsonWriter.write(response, generator);
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.BookstoreApplication;
+import com.example.bookstore.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the Get Books API with many concurrent clients, on the platform thread pool of Tomcat (the default) and
+ * on virtual threads. Each invocation sends all the requests of the clients at once and waits for their responses.
+ * Every request queries the db through the bounded data source, the second level and query caches being disabled, and
+ * pages with exact totals, hence a page and a count query. With a latency, a slow client is modelled in addition by a
+ * filter blocking each request before it reaches the controller, as a slow upload or a slow downstream call would.
+ * Virtual threads need Java 21, on an older Java both modes run on the platform thread pool.
+ *
+ * @author chetanbhatt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RequestConcurrencyBenchmark {
+
+    private static final int CATALOG_SIZE = 10000;
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"200", "2000"})
+    private int clients;
+
+    @Param({"0", "50"})
+    private int latencyMillis;
+
+    private ConfigurableApplicationContext context;
+
+    private ExecutorService clientExecutor;
+
+    private HttpClient httpClient;
+
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // devtools restarts the application in a new class loader, which would measure a different context
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(BookstoreApplication.class, SlowClientConfig.class)
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:concurrency",
+                        "logging.level.com.example.bookstore=WARN",
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "bookstore.threads.virtual=" + virtualThreads,
+                        "benchmark.latency-ms=" + latencyMillis)
+                .run();
+        context.getBean(BookService.class).addAll(BenchmarkData.books(CATALOG_SIZE));
+        int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        clientExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/books?author="
+                        + BenchmarkData.author(7).replace(" ", "%20") + "&size=50&totals=exact"))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clientExecutor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public int getBooksConcurrently() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            responses[i] = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> {
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("Unexpected status " + response.statusCode());
+                        }
+                    });
+        }
+        CompletableFuture.allOf(responses).join();
+        return responses.length;
+    }
+
+    @Configuration
+    static class SlowClientConfig {
+
+        @Bean
+        public OncePerRequestFilter slowClientFilter(@Value("${benchmark.latency-ms}") long latencyMillis) {
+            return new OncePerRequestFilter() {
+                @Override
+                protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                                FilterChain filterChain) throws ServletException, IOException {
+                    if (latencyMillis == 0) {
+                        filterChain.doFilter(request, response);
+                        return;
+                    }
+                    try {
+                        Thread.sleep(latencyMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ServletException(e);
+                    }
+                    filterChain.doFilter(request, response);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.util.BookSpecificationsBuilder;
+import com.example.bookstore.util.SearchOperation;
+import com.example.bookstore.util.SearchQueryParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of search queries and building of the specifications, as done for each uncached search request.
+ *
+ * @author chetanbhatt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpecificationBenchmark {
+
+    @Param({
+            "name:Learn Algorithms",
+            "name:Learn* AND (author:\"Chetan Bhatt\" OR category:[Technical,Poetry])"
+    })
+    private String query;
+
+    @Benchmark
+    public Specification<Book> parse() {
+        return SearchQueryParser.parse(query).toSpecification();
+    }
+
+    @Benchmark
+    public Specification<Book> build() {
+        return new BookSpecificationsBuilder()
+                .with("author", SearchOperation.SIMPLE_OPERATION_SET, "Chetan Bhatt")
+                .with("category", SearchOperation.SIMPLE_OPERATION_SET, "Technical")
+                .build();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.BookstoreApplication;
+import com.example.bookstore.configuration.PersistentStorageConfig;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.service.BookService;
+import com.example.bookstore.service.BookSnapshotService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time until the first page of books is served after a restart, with the catalog either reopened from the
+ * file-backed store of the persistent profile, loaded from a snapshot at startup or re-ingested into the in memory db.
+ * The store is seeded once per trial, each invocation then starts and closes an application context.
+ *
+ * @author chetanbhatt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final int SEED_CHUNK_SIZE = 10000;
+
+    @Param({"100000", "1000000"})
+    private int catalogSize;
+
+    @Param({"persistent", "snapshot", "reingest"})
+    private String storage;
+
+    private Path storageDir;
+
+    private List<Book> books;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // devtools restarts the application in a new class loader, which would measure a different context
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        storageDir = Files.createTempDirectory("bookstore-startup");
+        books = BenchmarkData.books(catalogSize);
+        if (storage.equals("persistent")) {
+            try (ConfigurableApplicationContext context = start()) {
+                seed(context.getBean(BookService.class));
+            }
+            books = null;
+        } else if (storage.equals("snapshot")) {
+            try (ConfigurableApplicationContext context = start()) {
+                seed(context.getBean(BookService.class));
+                context.getBean(BookSnapshotService.class).write(snapshot());
+            }
+            books = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(storageDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long restart() {
+        try (ConfigurableApplicationContext context = start()) {
+            BookService bookService = context.getBean(BookService.class);
+            if (books != null) {
+                seed(bookService);
+            }
+            return bookService.getBooks(null, null, PageRequest.of(0, 50)).getTotalElements();
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(BookstoreApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.com.example.bookstore=WARN");
+        if (storage.equals("persistent")) {
+            builder.profiles(PersistentStorageConfig.PROFILE)
+                    .properties("bookstore.storage.dir=" + storageDir);
+        } else {
+            builder.properties("spring.datasource.url=jdbc:h2:mem:startup");
+            if (storage.equals("snapshot") && Files.exists(snapshot())) {
+                builder.properties("bookstore.snapshot.load=" + snapshot());
+            }
+        }
+        return builder.run();
+    }
+
+    private Path snapshot() {
+        return storageDir.resolve("books.snapshot");
+    }
+
+    private void seed(BookService bookService) {
+        for (int i = 0; i < books.size(); i += SEED_CHUNK_SIZE) {
+            bookService.addAll(books.subList(i, Math.min(i + SEED_CHUNK_SIZE, books.size())));
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package com.example.bookstore.advice;
 
+import com.example.bookstore.configuration.ReactiveConfig;
 import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.exception.ErrorCode;
 import com.example.bookstore.rest.ServiceError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,24 +20,28 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import static com.example.bookstore.configuration.MetricsConfig.ERRORS_COUNTER;
 import static com.example.bookstore.exception.ErrorCode.VALIDATION_ERROR;
 
 @Slf4j
 @ControllerAdvice
+@Profile("!" + ReactiveConfig.PROFILE)
 public class CustomExceptionHandler extends ResponseEntityExceptionHandler {
 
+    static final String UNEXPECTED_ERROR = "UNEXPECTED";
+
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    public CustomExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(BookStoreException.class)
     public ResponseEntity<ServiceError> handleBookStoreException(BookStoreException exception) {
         log.error("BookStore Exception", exception);
-        ServiceError serviceError = constructError(exception);
-        switch (exception.getErrorCode()) {
-            case BOOK_NOT_FOUND:
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(serviceError);
-            case BOOK_ALREADY_EXIST:
-                return ResponseEntity.status(HttpStatus.CONFLICT).body(serviceError);
-            default:
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(serviceError);
-        }
+        countError(meterRegistry, exception.getErrorCode().name());
+        return ResponseEntity.status(status(exception.getErrorCode())).body(constructError(exception));
     }
 
     @Override
@@ -65,10 +75,37 @@ public class CustomExceptionHandler extends ResponseEntityExceptionHandler {
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ServiceError> handleUnexpected(Exception exception) {
         log.error("Unexpected exception occurred", exception);
+        countError(meterRegistry, UNEXPECTED_ERROR);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ServiceError().errorMessage(exception.getMessage()));
     }
 
-    private ServiceError constructError(BookStoreException ex){
+    static HttpStatus status(ErrorCode errorCode){
+        switch (errorCode) {
+            case BOOK_NOT_FOUND:
+                return HttpStatus.NOT_FOUND;
+            case BOOK_ALREADY_EXIST:
+                return HttpStatus.CONFLICT;
+            case VALIDATION_ERROR:
+                return HttpStatus.BAD_REQUEST;
+            case INGEST_QUEUE_FULL:
+                return HttpStatus.TOO_MANY_REQUESTS;
+            case INGEST_STOPPED:
+            case INDEX_LOADING:
+                return HttpStatus.SERVICE_UNAVAILABLE;
+            default:
+                return HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+    }
+
+    static void countError(MeterRegistry meterRegistry, String code){
+        Counter.builder(ERRORS_COUNTER)
+                .description("Errors returned by the api, by error code")
+                .tag("code", code)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    static ServiceError constructError(BookStoreException ex){
         ServiceError error = new ServiceError();
         error.setErrorCode(ex.getErrorCode().name());
         error.setErrorMessage(ex.getMessage());
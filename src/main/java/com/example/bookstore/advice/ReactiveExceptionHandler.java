@@ -0,0 +1,71 @@
+package com.example.bookstore.advice;
+
+import com.example.bookstore.configuration.ReactiveConfig;
+import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.rest.ServiceError;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+import static com.example.bookstore.advice.CustomExceptionHandler.UNEXPECTED_ERROR;
+import static com.example.bookstore.advice.CustomExceptionHandler.constructError;
+import static com.example.bookstore.advice.CustomExceptionHandler.countError;
+import static com.example.bookstore.advice.CustomExceptionHandler.status;
+import static com.example.bookstore.exception.ErrorCode.VALIDATION_ERROR;
+
+/**
+ * Exception handler of the reactive profile, which returns the same errors as the {@link CustomExceptionHandler}
+ * for the exceptions of WebFlux.
+ * @author chetanbhatt
+ */
+@Slf4j
+@ControllerAdvice
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveExceptionHandler {
+
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    public ReactiveExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ExceptionHandler(BookStoreException.class)
+    public ResponseEntity<ServiceError> handleBookStoreException(BookStoreException exception) {
+        log.error("BookStore Exception", exception);
+        countError(meterRegistry, exception.getErrorCode().name());
+        return ResponseEntity.status(status(exception.getErrorCode())).body(constructError(exception));
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ServiceError> handleBindException(WebExchangeBindException exception) {
+        log.error("Exception occurred", exception);
+        ServiceError error = new ServiceError().errorCode(VALIDATION_ERROR.name())
+                .errorMessage("Validation Failed")
+                .details(exception.getBindingResult().getAllErrors());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ServiceError> handleServerWebInputException(ServerWebInputException exception) {
+        log.error("Exception occurred", exception);
+        ServiceError error = new ServiceError().errorCode(VALIDATION_ERROR.name())
+                .errorMessage("Validation Failed")
+                .details(exception.getReason());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ServiceError> handleUnexpected(Exception exception) {
+        log.error("Unexpected exception occurred", exception);
+        countError(meterRegistry, UNEXPECTED_ERROR);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ServiceError().errorMessage(exception.getMessage()));
+    }
+}
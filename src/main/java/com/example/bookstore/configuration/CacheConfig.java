@@ -0,0 +1,48 @@
+package com.example.bookstore.configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class enables the in-process caches of the application.
+ * Caches are backed by Caffeine, bounded in size and expired after write as configured
+ * by spring.cache.caffeine.spec, and record hit/miss/eviction statistics. Caches whose entries must outlive the load
+ * of the others are given their own spec.
+ * @author chetanbhatt
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BOOKS_CACHE = "books";
+
+    public static final String SEARCH_QUERIES_CACHE = "searchQueries";
+
+    public static final String BOOK_COUNTS_CACHE = "bookCounts";
+
+    /**
+     * Books added by idempotency key, a retry is recognized until the key expires.
+     */
+    public static final String IDEMPOTENCY_KEYS_CACHE = "idempotencyKeys";
+
+    /**
+     * Outcomes of the books submitted for asynchronous ingestion, by id.
+     */
+    public static final String INGEST_RESULTS_CACHE = "ingestResults";
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> dedicatedCachesCustomizer(
+            @Value("${bookstore.cache.idempotency-keys.spec}") String idempotencyKeysSpec,
+            @Value("${bookstore.cache.ingest-results.spec}") String ingestResultsSpec) {
+        return cacheManager -> {
+            cacheManager.registerCustomCache(IDEMPOTENCY_KEYS_CACHE, Caffeine.from(idempotencyKeysSpec).build());
+            cacheManager.registerCustomCache(INGEST_RESULTS_CACHE, Caffeine.from(ingestResultsSpec).build());
+        };
+    }
+
+}
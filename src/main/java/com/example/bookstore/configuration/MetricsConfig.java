@@ -0,0 +1,25 @@
+package com.example.bookstore.configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class enables the timers of the methods annotated with @Timed, along with the ones of their classes.
+ * Request, repository, connection pool and Hibernate metrics are auto-configured, see application.properties.
+ * @author chetanbhatt
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_TIMER = "bookstore.service";
+
+    public static final String ERRORS_COUNTER = "bookstore.errors";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+}
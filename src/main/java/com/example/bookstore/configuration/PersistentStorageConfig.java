@@ -0,0 +1,98 @@
+package com.example.bookstore.configuration;
+
+import com.example.bookstore.model.BookView;
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.search.BookIndexer;
+import com.example.bookstore.service.BookService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * This class represents the configuration of the persistent profile, which keeps the catalog in a file-backed H2
+ * database, see application-persistent.properties. A restart then reopens the store instead of reloading the catalog.
+ * <p>
+ * Once the application is ready, the hot working set is read in the background, so that the first requests find it
+ * in the page cache of H2: the first pages of all the books, and the first page of each
+ * category and of the authors of the books of those pages. Each of these is a slice read with a LIMIT through an index,
+ * without the COUNT query of a page which would range-scan the index. The in-memory search indexes are not built on
+ * startup, see bookstore.search.index.lazy, the warm-up starts building them in the background once it is done.
+ * @author chetanbhatt
+ */
+@Slf4j
+@Configuration
+@Profile(PersistentStorageConfig.PROFILE)
+public class PersistentStorageConfig {
+
+    public static final String PROFILE = "persistent";
+
+    private final BookService bookService;
+
+    private final int pages;
+
+    private final int pageSize;
+
+    private final int authors;
+
+    private final ObjectProvider<BookIndexer> indexer;
+
+    @Autowired
+    public PersistentStorageConfig(BookService bookService, ObjectProvider<BookIndexer> indexer,
+                                   @Value("${bookstore.storage.warm-up.pages}") int pages,
+                                   @Value("${bookstore.storage.warm-up.page-size}") int pageSize,
+                                   @Value("${bookstore.storage.warm-up.authors}") int authors) {
+        this.bookService = bookService;
+        this.pages = pages;
+        this.pageSize = pageSize;
+        this.authors = authors;
+        this.indexer = indexer;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        Thread thread = new Thread(this::warmUp, "bookstore-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            // the authors are taken from the hot pages, counting the books of each author would scan the table
+            Set<String> hotAuthors = new LinkedHashSet<>();
+            for (int page = 0; page < pages; page++) {
+                Slice<BookView> books = bookService.getBookSlice(null, null, PageRequest.of(page, pageSize));
+                for (BookView book : books.getContent()) {
+                    if (hotAuthors.size() < authors) {
+                        hotAuthors.add(book.getAuthor());
+                    }
+                }
+                if (!books.hasNext()) {
+                    break;
+                }
+            }
+            for (Category category : Category.values()) {
+                bookService.getBookSlice(null, category.getValue(), PageRequest.of(0, pageSize));
+            }
+            for (String author : hotAuthors) {
+                bookService.getBookSlice(author, null, PageRequest.of(0, pageSize));
+            }
+            log.info("Warmed up the hot books in {} ms", System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            // the warm-up only saves time on the first requests, they are served either way
+            log.warn("Warm-up of the hot books failed", e);
+        }
+        indexer.ifAvailable(BookIndexer::startLoading);
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.example.bookstore.configuration;
+
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.util.Categories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+
+/**
+ * This class represents the configuration of the reactive variant of the api, active with the reactive profile.
+ * The api is then served by WebFlux from an R2DBC repository, in place of Spring MVC and JPA whose beans are
+ * disabled by the profile, see application-reactive.properties.
+ * @author chetanbhatt
+ */
+@Configuration
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveConfig {
+
+    public static final String PROFILE = "reactive";
+
+    /**
+     * Netty is preferred over Tomcat, which is on the classpath for Spring MVC, so that requests are served by a few
+     * event loop threads.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Categories are stored as their one byte codes, as by the JPA converter of the Entity.
+     */
+    @Bean
+    public R2dbcCustomConversions r2dbcCustomConversions(ConnectionFactory connectionFactory) {
+        return R2dbcCustomConversions.of(DialectResolver.getDialect(connectionFactory),
+                new CategoryWritingConverter(), new CategoryReadingConverter());
+    }
+
+    @WritingConverter
+    static class CategoryWritingConverter implements Converter<Category, Byte> {
+        @Override
+        public Byte convert(Category source) {
+            return Categories.code(source);
+        }
+    }
+
+    @ReadingConverter
+    static class CategoryReadingConverter implements Converter<Byte, Category> {
+        @Override
+        public Category convert(Byte source) {
+            return Categories.fromCode(source);
+        }
+    }
+
+}
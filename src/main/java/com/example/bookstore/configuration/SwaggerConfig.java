@@ -3,6 +3,7 @@ package com.example.bookstore.configuration;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiInfo;
@@ -15,6 +16,7 @@ import java.util.Collections;
 
 @Configuration
 @EnableSwagger2
+@Profile("!" + ReactiveConfig.PROFILE)
 public class SwaggerConfig {
     @Bean
     public Docket api() {
@@ -0,0 +1,101 @@
+package com.example.bookstore.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class runs the requests on virtual threads, when enabled by bookstore.threads.virtual.
+ * Tomcat and the async requests get an executor starting a virtual thread per task, in place of the bounded pools of
+ * platform threads, so a request blocked on the db no longer holds a platform thread. The executor is looked up at
+ * runtime as the application is built for Java 11, on a Java without virtual threads the platform pools are kept.
+ * <p>
+ * As the number of requests is no longer bounded by the threads, the primary data source is bounded instead by a
+ * {@link ConcurrencyLimitingDataSource}. The wrapper only keeps the threads waiting for a connection from pinning their
+ * carrier: a query still runs inside the synchronized code of the pool and of the H2 driver, which pins the carrier
+ * until it completes on Java 21 to 23. The pinned carriers are hence at most bookstore.datasource.max-concurrency, which
+ * should stay below the number of carriers (the number of cores) for the other requests to make progress.
+ * @author chetanbhatt
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "bookstore.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig implements WebMvcConfigurer, DisposableBean {
+
+    /**
+     * Name of the data source auto-configured by Spring Boot.
+     */
+    static final String PRIMARY_DATA_SOURCE = "dataSource";
+
+    private final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (executor != null) {
+                protocolHandler.setExecutor(executor);
+            }
+        };
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        if (executor != null) {
+            configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+        }
+    }
+
+    /**
+     * Wraps the primary data source only, which stays unwrappable to the pool for the metrics and health checks.
+     */
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(
+            @Value("${bookstore.datasource.max-concurrency}") int maxConcurrency,
+            @Value("${bookstore.datasource.acquire-timeout-ms}") long acquireTimeoutMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (PRIMARY_DATA_SOURCE.equals(beanName) && bean instanceof DataSource
+                        && !(bean instanceof ConcurrencyLimitingDataSource)) {
+                    return new ConcurrencyLimitingDataSource((DataSource) bean, maxConcurrency, acquireTimeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Gets Executors.newVirtualThreadPerTaskExecutor() of Java 21, or null on a Java without virtual threads.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            log.info("Requests are handled on virtual threads");
+            return executor;
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            log.warn("Virtual threads are not supported by Java {}, requests are handled on the platform thread pools",
+                    Runtime.version());
+            return null;
+        }
+    }
+}
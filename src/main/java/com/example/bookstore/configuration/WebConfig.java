@@ -1,26 +1,56 @@
 package com.example.bookstore.configuration;
 
 import com.example.bookstore.rest.Category;
+import com.example.bookstore.transformer.BookPageHttpMessageConverter;
+import com.example.bookstore.util.Categories;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.format.FormatterRegistry;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 /**
  * This class represents the configuration for the application.
  * @author chetanbhatt
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public WebConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
     @Override
     public void addFormatters(FormatterRegistry registry) {
         registry.addConverter(new StringToEnumConverter());
     }
 
+    /**
+     * Pages of books are written by their own converter, ahead of the Jackson one.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new BookPageHttpMessageConverter(objectMapper));
+    }
+
+    /**
+     * Looks the category up by name or value ignoring the case, without copying the string.
+     */
     static class StringToEnumConverter implements Converter<String, Category> {
         @Override
         public Category convert(String source) {
-            return Category.valueOf(source.toUpperCase());
+            Category category = Categories.fromName(source);
+            if (category == null) {
+                throw new IllegalArgumentException("Unexpected category '" + source + "'");
+            }
+            return category;
         }
     }
 
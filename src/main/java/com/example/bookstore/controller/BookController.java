@@ -1,26 +1,76 @@
 package com.example.bookstore.controller;
 
 import com.example.bookstore.api.BooksApi;
+import com.example.bookstore.configuration.ReactiveConfig;
+import com.example.bookstore.model.BookView;
+import com.example.bookstore.model.BulkAddResult;
+import com.example.bookstore.model.IngestResult;
+import com.example.bookstore.model.SnapshotInfo;
 import com.example.bookstore.exception.BookStoreException;
 import com.example.bookstore.exception.ErrorCode;
-import com.example.bookstore.util.BookSpecificationsBuilder;
-import com.example.bookstore.util.SearchOperation;
+import com.example.bookstore.util.Categories;
+import com.example.bookstore.util.KeysetCursor;
+import com.example.bookstore.util.TotalsMode;
 import com.example.bookstore.rest.AddBookRequest;
 import com.example.bookstore.rest.Book;
-import com.example.bookstore.rest.Category;
+import com.example.bookstore.rest.BulkAddBookResponse;
+import com.example.bookstore.rest.BulkAddBookResult;
+import com.example.bookstore.rest.BulkAddStatus;
+import com.example.bookstore.rest.BulkDeleteBookRequest;
+import com.example.bookstore.rest.BulkDeleteBookResponse;
+import com.example.bookstore.rest.FacetResponse;
+import com.example.bookstore.rest.IngestStatus;
+import com.example.bookstore.rest.IngestStatusResponse;
 import com.example.bookstore.rest.PagedBookResponse;
+import com.example.bookstore.rest.RankedBookResponse;
+import com.example.bookstore.rest.SnapshotResponse;
+import com.example.bookstore.rest.SuggestionResponse;
+import com.example.bookstore.search.BookHit;
+import com.example.bookstore.service.BookIngestService;
+import com.example.bookstore.service.BookSearchService;
 import com.example.bookstore.service.BookService;
+import com.example.bookstore.service.BookSnapshotService;
+import com.example.bookstore.service.SearchQueryCompiler;
+import com.example.bookstore.transformer.BookExportWriter;
+import com.example.bookstore.transformer.BookPageResponse;
+import com.example.bookstore.transformer.BulkAddResponseWriter;
 import com.example.bookstore.transformer.ModelTransformer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import io.swagger.annotations.ApiParam;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 
 /**
  * This class represents the Rest Controller for the bookstore application.
@@ -28,61 +78,328 @@ import javax.validation.constraints.NotNull;
  */
 @RestController
 @RequestMapping("/api/v1/books")
+@Profile("!" + ReactiveConfig.PROFILE)
 public class BookController implements BooksApi {
 
+    private static final int NDJSON_CHUNK_SIZE = 1000;
+
+    private static final ObjectReader ADD_BOOK_REQUEST_READER = new ObjectMapper()
+            .readerFor(AddBookRequest.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
     private BookService bookService;
 
+    private SearchQueryCompiler searchQueryCompiler;
+
+    private BookSearchService bookSearchService;
+
+    private BookSnapshotService bookSnapshotService;
+
+    private BookIngestService bookIngestService;
+
+    /**
+     * Sets the timeout of the export alone, the other asynchronous requests keeping the default one.
+     */
+    private CallableProcessingInterceptor exportTimeout;
+
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, SearchQueryCompiler searchQueryCompiler, BookSearchService bookSearchService,
+                          BookSnapshotService bookSnapshotService, BookIngestService bookIngestService,
+                          @Value("${bookstore.export.timeout-ms}") long exportTimeoutMillis) {
         this.bookService = bookService;
+        this.searchQueryCompiler = searchQueryCompiler;
+        this.bookSearchService = bookSearchService;
+        this.bookSnapshotService = bookSnapshotService;
+        this.bookIngestService = bookIngestService;
+        this.exportTimeout = new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                // called before the asynchronous processing starts, which applies the timeout
+                ((AsyncWebRequest) request).setTimeout(exportTimeoutMillis);
+            }
+        };
     }
 
+    /**
+     * Adds the book, or queues it when the asynchronous ingestion is enabled and no idempotency key is provided.
+     * A queued book is accepted with the location of its ingestion status.
+     */
     @PostMapping(value = "", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Void> addBook(@ApiParam(value = "Request Body for adding a book" ,required=true )  @Valid @RequestBody AddBookRequest addBookRequest) {
+    public ResponseEntity<Void> addBook(@ApiParam(value = "Request Body for adding a book" ,required=true )  @Valid @RequestBody AddBookRequest addBookRequest,@ApiParam(value = "Key identifying the request, a retry with the same key adds the book once and succeeds again instead of failing with a conflict." ) @RequestHeader(value="Idempotency-Key", required=false) String idempotencyKey) {
         Book book = new Book();
         book.setName(addBookRequest.getName());
         book.setAuthor(addBookRequest.getAuthor());
-        book.setCategory(Category.fromValue(addBookRequest.getCategory().getValue()));
-        bookService.add(ModelTransformer.fromRestToModel.apply(book)).getId();
+        book.setCategory(Categories.fromValue(addBookRequest.getCategory().getValue()));
+        com.example.bookstore.model.Book newBook = ModelTransformer.fromRestToModel.apply(book);
+        if(idempotencyKey == null && bookIngestService.isEnabled()){
+            String id = bookIngestService.submit(newBook);
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentContextPath().path("/api/v1/books/ingest/{id}").buildAndExpand(id).toUri())
+                    .build();
+        }
+        bookService.add(newBook, idempotencyKey);
         return ResponseEntity.created(null).build();
     }
 
+    @GetMapping(value = "/ingest/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<IngestStatusResponse> getIngestStatus(@ApiParam(value = "The id of the book submitted for ingestion",required=true) @PathVariable("id") String id) {
+        IngestResult result = bookIngestService.getResult(id);
+        return ResponseEntity.ok(new IngestStatusResponse().id(result.getId())
+                .status(IngestStatus.fromValue(result.getStatus().name()))
+                .message(result.getMessage()));
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkAddBookResponse> addBooks(@ApiParam(value = "Request Body for adding books in bulk" ,required=true )  @Valid @RequestBody List<AddBookRequest> addBookRequest) {
+        BulkAddBookResponse response = new BulkAddBookResponse();
+        response.setResults(addChunk(addBookRequest, 0));
+        response.setCreated(count(response.getResults(), BulkAddStatus.CREATED));
+        response.setDuplicates(count(response.getResults(), BulkAddStatus.DUPLICATE));
+        response.setInvalid(count(response.getResults(), BulkAddStatus.INVALID));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Adds the books streamed as newline delimited JSON.
+     * The stream is read and added chunk by chunk, and the results of each chunk are written as soon as it is added,
+     * so neither the request nor the response is materialized as a whole.
+     * A malformed book fails the request when it is in the first chunk, as nothing is written yet. Afterwards the books
+     * read before it are added, the malformed book is reported as invalid and the books after it are not read.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public void addBooksStream(InputStream inputStream, HttpServletResponse response) throws IOException {
+        List<AddBookRequest> chunk = new ArrayList<>(NDJSON_CHUNK_SIZE);
+        BulkAddResponseWriter writer = null;
+        int offset = 0;
+        try (MappingIterator<AddBookRequest> iterator = ADD_BOOK_REQUEST_READER.readValues(inputStream)) {
+            while (iterator.hasNextValue()) {
+                chunk.add(iterator.nextValue());
+                if (chunk.size() == NDJSON_CHUNK_SIZE) {
+                    if (writer == null) {
+                        writer = newBulkAddResponseWriter(response);
+                    }
+                    writer.write(addChunk(chunk, offset));
+                    offset += chunk.size();
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            int index = offset + chunk.size();
+            if (writer == null) {
+                throw new BookStoreException(ErrorCode.VALIDATION_ERROR, Map.of("index", index),
+                        "Malformed book in the request, no book has been processed");
+            }
+            writer.write(addChunk(chunk, offset));
+            writer.write(List.of(new BulkAddBookResult().index(index).status(BulkAddStatus.INVALID)
+                    .message("Malformed book, the books after it have not been processed")));
+            writer.close();
+            return;
+        }
+        if (writer == null) {
+            writer = newBulkAddResponseWriter(response);
+        }
+        writer.write(addChunk(chunk, offset));
+        writer.close();
+    }
+
     @DeleteMapping(value = "{id}")
     public ResponseEntity<Void> deleteBook(@ApiParam(value = "The id of the book to delete",required=true) @PathVariable("id") String id) {
         bookService.delete(id);
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Deletes the books either by ids or by the author and/or category filters, exactly one of which is expected.
+     */
+    @PostMapping(value = "/bulk/delete", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkDeleteBookResponse> deleteBooks(@ApiParam(value = "Request Body for deleting books in bulk" ,required=true )  @Valid @RequestBody BulkDeleteBookRequest bulkDeleteBookRequest) {
+        boolean byIds = bulkDeleteBookRequest.getIds() != null;
+        boolean byFilter = bulkDeleteBookRequest.getAuthor() != null || bulkDeleteBookRequest.getCategory() != null;
+        if(byIds == byFilter){
+            throw new BookStoreException(ErrorCode.VALIDATION_ERROR, null,
+                    "Either the ids or the author and/or category of the books to delete must be provided");
+        }
+        long deleted = byIds
+                ? bookService.deleteAll(bulkDeleteBookRequest.getIds())
+                : bookService.deleteAll(bulkDeleteBookRequest.getAuthor(), bulkDeleteBookRequest.getCategory());
+        return ResponseEntity.ok(new BulkDeleteBookResponse().deleted(deleted));
+    }
+
+    /**
+     * Writes a snapshot of all the books to the snapshot directory.
+     */
+    @PostMapping(value = "/snapshot", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SnapshotResponse> snapshotBooks() {
+        SnapshotInfo snapshot = bookSnapshotService.backup();
+        return ResponseEntity.ok(new SnapshotResponse().name(snapshot.getName()).books(snapshot.getBooks()));
+    }
+
     @GetMapping(value = "{id}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Book> getBook(@ApiParam(value = "The id of the book to retrieve",required=true) @PathVariable("id") String id) {
-        com.example.bookstore.model.Book book = bookService.get(id);
+        com.example.bookstore.model.Book book;
+        try {
+            book = bookService.get(id);
+        } catch (BookStoreException e) {
+            // a book of the snapshot being loaded at startup may not be inserted yet
+            if (e.getErrorCode() != ErrorCode.BOOK_NOT_FOUND) {
+                throw e;
+            }
+            book = bookSnapshotService.get(id).orElseThrow(() -> e);
+        }
         return ResponseEntity.ok(ModelTransformer.fromModelToRest.apply(book));
     }
 
+    /**
+     * Gets the books by page, or by keyset when a cursor is provided.
+     * Pages are counted as requested by totals, with a count query, from the counters or not at all.
+     */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<PagedBookResponse> getBooks(@ApiParam(value = "Get the books by the author") @Valid @RequestParam(value = "author", required = false) String author,@ApiParam(value = "Get the books by category") @Valid @RequestParam(value = "category", required = false) String category,@ApiParam(value = "Get the books by the author", defaultValue = "0") @Valid @RequestParam(value = "page", required = false, defaultValue="0") Integer page,@ApiParam(value = "Get the books by the author", defaultValue = "50") @Valid @RequestParam(value = "size", required = false, defaultValue="50") Integer size) {
-        Page<com.example.bookstore.model.Book> bookPage = bookService.getBooks(author, category, PageRequest.of(page, size));
+    public ResponseEntity<PagedBookResponse> getBooks(@ApiParam(value = "Get the books by the author") @Valid @RequestParam(value = "author", required = false) String author,@ApiParam(value = "Get the books by category") @Valid @RequestParam(value = "category", required = false) String category,@ApiParam(value = "Get the books by the author", defaultValue = "0") @Valid @RequestParam(value = "page", required = false, defaultValue="0") Integer page,@ApiParam(value = "Get the books by the author", defaultValue = "50") @Valid @RequestParam(value = "size", required = false, defaultValue="50") Integer size,@ApiParam(value = "Continuation token for keyset pagination, as returned in next-cursor of the previous response. An empty value starts from the first book. When provided, page is ignored and no totals are returned.") @Valid @RequestParam(value = "cursor", required = false) String cursor,@ApiParam(value = "How the totals are computed. exact runs a count query, approximate reads maintained counters or cached counts, and none skips the totals and only returns has-next. Ignored in keyset pagination mode.", allowableValues = "exact, approximate, none", defaultValue = "exact") @Valid @RequestParam(value = "totals", required = false, defaultValue="exact") String totals) {
+        TotalsMode totalsMode = TotalsMode.fromValue(totals);
+        if(cursor != null){
+            Slice<BookView> bookSlice = bookService.getBooks(author, category, KeysetCursor.decode(cursor), size);
+            return ResponseEntity.ok(convertToKeysetBookResponse(bookSlice));
+        }
+        if(totalsMode != TotalsMode.EXACT){
+            Slice<BookView> bookSlice = bookService.getBookSlice(author, category, PageRequest.of(page, size));
+            Long total = totalsMode == TotalsMode.APPROXIMATE ? bookService.countBooks(author, category) : null;
+            return ResponseEntity.ok(convertToSlicedBookResponse(bookSlice, total));
+        }
+        Page<BookView> bookPage = bookService.getBooks(author, category, PageRequest.of(page, size));
         return ResponseEntity.ok(convertToPagedBookResponse(bookPage));
     }
 
+    /**
+     * Exports all the books matching the filters, streamed one by one straight from the db cursor, with a timeout of
+     * bookstore.export.timeout-ms.
+     */
+    @GetMapping(value = "/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(@ApiParam(value = "Export the books by the author") @Valid @RequestParam(value = "author", required = false) String author,@ApiParam(value = "Export the books by category") @Valid @RequestParam(value = "category", required = false) String category,@ApiParam(value = "Format of the export, ndjson or csv", defaultValue = "ndjson") @Valid @RequestParam(value = "format", required = false, defaultValue="ndjson") String format) {
+        BookExportWriter.Format exportFormat;
+        try {
+            exportFormat = BookExportWriter.Format.fromValue(format);
+        } catch (IllegalArgumentException e) {
+            throw new BookStoreException(ErrorCode.VALIDATION_ERROR, Map.of("format", format), "Invalid export format");
+        }
+        WebAsyncUtils.getAsyncManager(((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest())
+                .registerCallableInterceptor(exportTimeout, exportTimeout);
+        StreamingResponseBody body = outputStream -> {
+            try (BookExportWriter writer = BookExportWriter.of(exportFormat, outputStream)) {
+                bookService.export(author, category, book -> {
+                    try {
+                        writer.write(book);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .body(body);
+    }
+
     @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<PagedBookResponse> searchBook(@NotNull @ApiParam(value = "Search books by providing query string. Only Equality operator(:) is supported as of now. Example of a query string - name:abc", required = true) @Valid @RequestParam(value = "query", required = true) String query,@ApiParam(value = "Get the books by the author", defaultValue = "0") @Valid @RequestParam(value = "page", required = false, defaultValue="0") Integer page,@ApiParam(value = "Get the books by the author", defaultValue = "50") @Valid @RequestParam(value = "size", required = false, defaultValue="50") Integer size) {
-        BookSpecificationsBuilder builder = new BookSpecificationsBuilder();
-        if(!query.contains(SearchOperation.SIMPLE_OPERATION_SET)){
-            throw new BookStoreException(ErrorCode.VALIDATION_ERROR, null, "Invalid query string");
+    public ResponseEntity<PagedBookResponse> searchBook(@NotNull @ApiParam(value = "Search books by providing query string. Criteria key operator value, with the operators : !: > >= < <= ~, can be combined with AND, OR and parentheses. Example of a query string - name:Learn* AND (author:abc OR category:[Technical,Poetry])", required = true) @Valid @RequestParam(value = "query", required = true) String query,@ApiParam(value = "Get the books by the author", defaultValue = "0") @Valid @RequestParam(value = "page", required = false, defaultValue="0") Integer page,@ApiParam(value = "Get the books by the author", defaultValue = "50") @Valid @RequestParam(value = "size", required = false, defaultValue="50") Integer size,@ApiParam(value = "Continuation token for keyset pagination, as returned in next-cursor of the previous response. An empty value starts from the first book. When provided, page is ignored and no totals are returned.") @Valid @RequestParam(value = "cursor", required = false) String cursor,@ApiParam(value = "How the totals are computed. exact runs a count query, approximate reads maintained counters or cached counts, and none skips the totals and only returns has-next. Ignored in keyset pagination mode.", allowableValues = "exact, approximate, none", defaultValue = "exact") @Valid @RequestParam(value = "totals", required = false, defaultValue="exact") String totals) {
+        TotalsMode totalsMode = TotalsMode.fromValue(totals);
+        Specification<com.example.bookstore.model.Book> specification = searchQueryCompiler.compile(query);
+        if(cursor != null){
+            Slice<BookView> bookSlice = bookService.getBooks(specification, KeysetCursor.decode(cursor), size);
+            return ResponseEntity.ok(convertToKeysetBookResponse(bookSlice));
         }
-        String[] searchParams = query.trim().split(SearchOperation.SIMPLE_OPERATION_SET);
-        builder.with(searchParams[0], SearchOperation.SIMPLE_OPERATION_SET, searchParams[1]);
-        Page<com.example.bookstore.model.Book> bookPage = bookService.getBooks(builder.build(), PageRequest.of(page, size));
+        if(totalsMode != TotalsMode.EXACT){
+            Slice<BookView> bookSlice = bookService.getBookSlice(specification, PageRequest.of(page, size));
+            Long total = totalsMode == TotalsMode.APPROXIMATE ? bookService.countBooks(query, specification) : null;
+            return ResponseEntity.ok(convertToSlicedBookResponse(bookSlice, total));
+        }
+        Page<BookView> bookPage = bookService.getBooks(specification, PageRequest.of(page, size));
         return ResponseEntity.ok(convertToPagedBookResponse(bookPage));
     }
 
-    private PagedBookResponse convertToPagedBookResponse(final Page<com.example.bookstore.model.Book> bookPage) {
-        PagedBookResponse response = new PagedBookResponse();
-        response.setBooks(ModelTransformer.fromModelListToRestList.apply(bookPage.getContent()));
+    @GetMapping(value = "/fulltext", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<RankedBookResponse> fullTextSearchBooks(@NotNull @ApiParam(value = "Text to search in the name and the author of the books", required = true) @Valid @RequestParam(value = "q", required = true) String q,@ApiParam(value = "Page of the hits", defaultValue = "0") @Valid @RequestParam(value = "page", required = false, defaultValue="0") Integer page,@ApiParam(value = "Number of hits in a page", defaultValue = "50") @Valid @RequestParam(value = "size", required = false, defaultValue="50") Integer size) {
+        Page<BookHit> hitPage = bookSearchService.search(q, PageRequest.of(page, size));
+        RankedBookResponse response = new RankedBookResponse();
+        response.setHits(hitPage.getContent().stream().map(ModelTransformer.fromBookHitToRest).collect(Collectors.toList()));
+        response.setCurrentPage(hitPage.getNumber());
+        response.setTotalPages(hitPage.getTotalPages());
+        response.setTotalItems(hitPage.getTotalElements());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping(value = "/suggest", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SuggestionResponse> suggestBooks(@NotNull @ApiParam(value = "Prefix of the name or the author, as typed by the user", required = true) @Valid @RequestParam(value = "prefix", required = true) String prefix,@ApiParam(value = "Maximum number of suggestions, at most 20", defaultValue = "10") @Valid @RequestParam(value = "limit", required = false, defaultValue="10") Integer limit) {
+        SuggestionResponse response = new SuggestionResponse();
+        response.setSuggestions(bookSearchService.suggest(prefix, limit).stream()
+                .map(ModelTransformer.fromSuggestionToRest).collect(Collectors.toList()));
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping(value = "/facets", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<FacetResponse> getFacets(@ApiParam(value = "Count only the books matching the query, in the language of the search API") @Valid @RequestParam(value = "query", required = false) String query,@ApiParam(value = "Number of authors with the most books to return, at most 100", defaultValue = "10") @Valid @RequestParam(value = "top", required = false, defaultValue="10") Integer top) {
+        Specification<com.example.bookstore.model.Book> specification = query == null ? null : searchQueryCompiler.compile(query);
+        return ResponseEntity.ok(ModelTransformer.fromBookFacetsToRest.apply(bookSearchService.getFacets(specification, top)));
+    }
+
+    private List<BulkAddBookResult> addChunk(final List<AddBookRequest> addBookRequests, final int offset) {
+        List<com.example.bookstore.model.Book> books = new ArrayList<>(addBookRequests.size());
+        for (AddBookRequest addBookRequest : addBookRequests) {
+            books.add(ModelTransformer.fromAddRequestToModel.apply(addBookRequest));
+        }
+        List<BulkAddResult> results = bookService.addAll(books);
+        List<BulkAddBookResult> restResults = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            BulkAddBookResult restResult = ModelTransformer.fromBulkAddResultToRest.apply(results.get(i));
+            restResult.setIndex(offset + i);
+            restResults.add(restResult);
+        }
+        return restResults;
+    }
+
+    private static long count(final List<BulkAddBookResult> results, final BulkAddStatus status) {
+        return results.stream().filter(result -> result.getStatus() == status).count();
+    }
+
+    private BulkAddResponseWriter newBulkAddResponseWriter(final HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        return new BulkAddResponseWriter(response.getOutputStream());
+    }
+
+    private PagedBookResponse convertToPagedBookResponse(final Page<BookView> bookPage) {
+        PagedBookResponse response = new BookPageResponse(bookPage.getContent());
         response.setCurrentPage(bookPage.getNumber());
         response.setTotalPages(bookPage.getTotalPages());
         response.setTotalItems(bookPage.getTotalElements());
         return response;
     }
+
+    /**
+     * Converts a page fetched as a slice, along with its approximate total if any.
+     * The total is exact once the last page is reached, and is never less than the books seen so far.
+     */
+    private PagedBookResponse convertToSlicedBookResponse(final Slice<BookView> bookSlice, final Long approximateTotal) {
+        PagedBookResponse response = new BookPageResponse(bookSlice.getContent());
+        response.setCurrentPage(bookSlice.getNumber());
+        response.setHasNext(bookSlice.hasNext());
+        if(approximateTotal != null){
+            long offset = bookSlice.getPageable().getOffset();
+            long seen = offset + bookSlice.getNumberOfElements();
+            boolean exact = !bookSlice.hasNext() && (bookSlice.hasContent() || offset == 0);
+            long total = exact ? seen : Math.max(approximateTotal, bookSlice.hasNext() ? seen + 1 : seen);
+            response.setTotalItems(total);
+            response.setTotalPages((int) ((total + bookSlice.getSize() - 1) / bookSlice.getSize()));
+            response.setTotalsApproximate(!exact);
+        }
+        return response;
+    }
+
+    private PagedBookResponse convertToKeysetBookResponse(final Slice<BookView> bookSlice) {
+        PagedBookResponse response = new BookPageResponse(bookSlice.getContent());
+        response.setHasNext(bookSlice.hasNext());
+        if(bookSlice.hasNext()){
+            BookView last = bookSlice.getContent().get(bookSlice.getNumberOfElements() - 1);
+            response.setNextCursor(KeysetCursor.after(last).encode());
+        }
+        return response;
+    }
 }
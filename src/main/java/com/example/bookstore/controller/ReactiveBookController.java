@@ -0,0 +1,102 @@
+package com.example.bookstore.controller;
+
+import com.example.bookstore.configuration.ReactiveConfig;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.rest.AddBookRequest;
+import com.example.bookstore.rest.PagedBookResponse;
+import com.example.bookstore.service.ReactiveBookService;
+import com.example.bookstore.transformer.ModelTransformer;
+import com.example.bookstore.util.SearchQueryParser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+/**
+ * This class represents the non blocking Rest Controller of the reactive profile.
+ * It serves the add, get, delete, list and search operations of books.yaml with the same paths, parameters and
+ * models as the {@link BookController}. Search results are also streamed as newline delimited JSON, one book at a
+ * time as the client reads them.
+ * @author chetanbhatt
+ */
+@RestController
+@RequestMapping("/api/v1/books")
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveBookController {
+
+    private ReactiveBookService bookService;
+
+    @Autowired
+    public ReactiveBookController(ReactiveBookService bookService) {
+        this.bookService = bookService;
+    }
+
+    @PostMapping(value = "", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Void>> addBook(@Valid @RequestBody AddBookRequest addBookRequest) {
+        return bookService.add(ModelTransformer.fromAddRequestToModel.apply(addBookRequest))
+                .map(book -> ResponseEntity.created(null).build());
+    }
+
+    @DeleteMapping(value = "{id}")
+    public Mono<ResponseEntity<Void>> deleteBook(@PathVariable("id") String id) {
+        return bookService.delete(id)
+                .then(Mono.just(ResponseEntity.ok().build()));
+    }
+
+    @GetMapping(value = "{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<com.example.bookstore.rest.Book>> getBook(@PathVariable("id") String id) {
+        return bookService.get(id)
+                .map(book -> ResponseEntity.ok(ModelTransformer.fromModelToRest.apply(book)));
+    }
+
+    @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<PagedBookResponse>> getBooks(@RequestParam(value = "author", required = false) String author,
+                                                            @RequestParam(value = "category", required = false) String category,
+                                                            @RequestParam(value = "page", required = false, defaultValue = "0") Integer page,
+                                                            @RequestParam(value = "size", required = false, defaultValue = "50") Integer size) {
+        return bookService.getBooks(author, category, PageRequest.of(page, size))
+                .map(bookPage -> ResponseEntity.ok(convertToPagedBookResponse(bookPage)));
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<PagedBookResponse>> searchBook(@RequestParam(value = "query") String query,
+                                                              @RequestParam(value = "page", required = false, defaultValue = "0") Integer page,
+                                                              @RequestParam(value = "size", required = false, defaultValue = "50") Integer size) {
+        return bookService.getBooks(SearchQueryParser.parse(query).toCriteria(), PageRequest.of(page, size))
+                .map(bookPage -> ResponseEntity.ok(convertToPagedBookResponse(bookPage)));
+    }
+
+    /**
+     * Streams all the books matching the query, when newline delimited JSON is accepted.
+     * Books are written as they are read, and read as they are written, so a slow client slows down the query
+     * rather than the books piling up in memory.
+     */
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<com.example.bookstore.rest.Book> streamSearchBook(@RequestParam(value = "query") String query) {
+        return bookService.streamBooks(SearchQueryParser.parse(query).toCriteria())
+                .map(ModelTransformer.fromModelToRest);
+    }
+
+    private static PagedBookResponse convertToPagedBookResponse(final Page<Book> bookPage) {
+        PagedBookResponse response = new PagedBookResponse();
+        response.setBooks(ModelTransformer.fromModelListToRestList.apply(bookPage.getContent()));
+        response.setCurrentPage(bookPage.getNumber());
+        response.setTotalPages(bookPage.getTotalPages());
+        response.setTotalItems(bookPage.getTotalElements());
+        return response;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.bookstore.event;
+
+import com.example.bookstore.model.Book;
+
+import java.util.List;
+
+/**
+ * Event published once books have been added in the db.
+ * @author chetanbhatt
+ */
+public final class BooksAddedEvent {
+
+    private final List<Book> books;
+
+    public BooksAddedEvent(List<Book> books) {
+        this.books = books;
+    }
+
+    public List<Book> getBooks() {
+        return books;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.bookstore.event;
+
+import java.util.List;
+
+/**
+ * Event published once books have been deleted from the db.
+ * @author chetanbhatt
+ */
+public final class BooksDeletedEvent {
+
+    private final List<String> ids;
+
+    public BooksDeletedEvent(List<String> ids) {
+        this.ids = ids;
+    }
+
+    public List<String> getIds() {
+        return ids;
+    }
+}
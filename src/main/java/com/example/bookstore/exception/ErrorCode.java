@@ -3,5 +3,8 @@ package com.example.bookstore.exception;
 public enum ErrorCode {
     BOOK_NOT_FOUND,
     BOOK_ALREADY_EXIST,
-    VALIDATION_ERROR
+    VALIDATION_ERROR,
+    INGEST_QUEUE_FULL,
+    INGEST_STOPPED,
+    INDEX_LOADING
 }
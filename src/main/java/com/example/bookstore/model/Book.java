@@ -1,40 +1,82 @@
 package com.example.bookstore.model;
 
 import com.example.bookstore.rest.Category;
+import com.example.bookstore.util.BookIds;
+import com.example.bookstore.util.Categories;
 import lombok.Getter;
 import lombok.NonNull;
+import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
 import java.util.UUID;
 
 /**
  * This is the Entity which is to be persisted in the db.
+ * The id is also marked for Spring Data, so that the R2DBC repository of the reactive profile maps the same table.
+ * It is stored as a time ordered UUID, see {@link BookIds}, and exposed as its string by {@link #getId()}.
+ * The category is stored as its one byte code, see {@link CategoryConverter}, and exposed as its value.
+ * Books are not kept in the second level cache, reads by id being cached by the service in the books cache.
+ * The table is created by the migrations in db/migration, the indexes are declared here as well for reference.
  * @author chetanbhatt
  */
 @Getter
 @NonNull
 @Entity
-@Table(indexes = { @Index(name = "author_index", columnList = "author"),
-                    @Index(name = "name_index", columnList = "name"),
+@Table(indexes = { @Index(name = "author_category_index", columnList = "author, category, name, id"),
+                    @Index(name = "category_id_index", columnList = "category, id"),
+                    @Index(name = "name_id_index", columnList = "name, id"),
                 },
-        uniqueConstraints = { @UniqueConstraint(columnNames = { "name", "author" }) }
+        uniqueConstraints = { @UniqueConstraint(name = "uk_book_name_author", columnNames = { "name", "author" }) }
 )
-public final class Book {
+public final class Book implements BookView {
     @Id
-    private String id;
+    @org.springframework.data.annotation.Id
+    // bound as its string, which H2 converts to the 16 bytes of the uuid column in any comparison
+    @Type(type = "uuid-char")
+    @Column(columnDefinition = "uuid")
+    private UUID id;
 
     private String name;
 
     private String author;
 
-    private String category;
+    @Convert(converter = CategoryConverter.class)
+    private Category category;
 
     public Book(){}
 
     public Book(String name, String author, Category category) {
-        this.id = UUID.randomUUID().toString();
+        this.id = BookIds.next();
         this.name = name;
         this.author = author;
-        this.category = category.getValue();
+        this.category = category;
+    }
+
+    /**
+     * Restores a book as it was stored, e.g. from a snapshot, keeping its id.
+     */
+    public Book(String id, String name, String author, String category) {
+        this(UUID.fromString(id), name, author, category);
+    }
+
+    public Book(UUID id, String name, String author, String category) {
+        this.id = id;
+        this.name = name;
+        this.author = author;
+        this.category = Categories.fromValue(category);
+    }
+
+    @Override
+    public String getId() {
+        return id == null ? null : id.toString();
+    }
+
+    public UUID getUuid() {
+        return id;
+    }
+
+    @Override
+    public String getCategory() {
+        return category == null ? null : category.getValue();
     }
 }
\ No newline at end of file
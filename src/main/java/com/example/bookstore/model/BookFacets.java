@@ -0,0 +1,31 @@
+package com.example.bookstore.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Counts of books by category and by author, along with the total.
+ * @author chetanbhatt
+ */
+@Getter
+@AllArgsConstructor
+public final class BookFacets {
+
+    private final long total;
+
+    private final List<Count> categories;
+
+    private final List<Count> authors;
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Count {
+
+        private final String value;
+
+        private final long count;
+
+    }
+}
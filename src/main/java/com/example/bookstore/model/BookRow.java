@@ -0,0 +1,37 @@
+package com.example.bookstore.model;
+
+import com.example.bookstore.rest.Category;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Fields of a book projected by a list query, instead of the Entity.
+ * Rows are not managed by the persistence context, hence neither snapshotted nor dirty checked.
+ * The names of the constructor parameters must match the fields of the Entity.
+ * @author chetanbhatt
+ */
+@Getter
+@AllArgsConstructor
+public final class BookRow implements BookView {
+
+    private final UUID id;
+
+    private final String name;
+
+    private final String author;
+
+    private final Category category;
+
+    @Override
+    public String getId() {
+        return id.toString();
+    }
+
+    @Override
+    public String getCategory() {
+        return category.getValue();
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.example.bookstore.model;
+
+/**
+ * Read only view of the fields of a book, as listed in the pages of books.
+ * It is implemented by the Entity as well as by the rows projected by the list queries.
+ * @author chetanbhatt
+ */
+public interface BookView {
+
+    String getId();
+
+    String getName();
+
+    String getAuthor();
+
+    String getCategory();
+
+}
@@ -0,0 +1,38 @@
+package com.example.bookstore.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of adding a single book of a bulk request.
+ * @author chetanbhatt
+ */
+@Getter
+@AllArgsConstructor
+public final class BulkAddResult {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+    private final String id;
+
+    private final Status status;
+
+    private final String message;
+
+    public static BulkAddResult created(Book book) {
+        return new BulkAddResult(book.getId(), Status.CREATED, null);
+    }
+
+    public static BulkAddResult duplicate(Book book) {
+        return new BulkAddResult(null, Status.DUPLICATE,
+                String.format("Book already exists with name %s and author %s", book.getName(), book.getAuthor()));
+    }
+
+    public static BulkAddResult invalid(String message) {
+        return new BulkAddResult(null, Status.INVALID, message);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.bookstore.model;
+
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.util.Categories;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores the category of the books as its one byte code, see {@link Categories}.
+ * It also converts the category parameters of the queries on the books.
+ * @author chetanbhatt
+ */
+@Converter
+public class CategoryConverter implements AttributeConverter<Category, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(Category category) {
+        return category == null ? null : Categories.code(category);
+    }
+
+    @Override
+    public Category convertToEntityAttribute(Byte code) {
+        return code == null ? null : Categories.fromCode(code);
+    }
+}
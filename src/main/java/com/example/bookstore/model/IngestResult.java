@@ -0,0 +1,39 @@
+package com.example.bookstore.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a book submitted for asynchronous ingestion, pending until the batch holding the book is written.
+ * @author chetanbhatt
+ */
+@Getter
+@AllArgsConstructor
+public final class IngestResult {
+
+    public enum Status {
+        PENDING,
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+
+    private final String id;
+
+    private final Status status;
+
+    private final String message;
+
+    public static IngestResult pending(String id) {
+        return new IngestResult(id, Status.PENDING, null);
+    }
+
+    public static IngestResult of(String id, BulkAddResult result) {
+        return new IngestResult(id, Status.valueOf(result.getStatus().name()), result.getMessage());
+    }
+
+    public static IngestResult failed(String id, String message) {
+        return new IngestResult(id, Status.FAILED, message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.bookstore.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A snapshot written by a backup, with the number of books it holds.
+ * @author chetanbhatt
+ */
+@Getter
+@AllArgsConstructor
+public final class SnapshotInfo {
+
+    private final String name;
+
+    private final int books;
+}
@@ -1,34 +1,71 @@
 package com.example.bookstore.repository;
 
 import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookRow;
+import com.example.bookstore.rest.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
 
 /**
  * This is the persistence layer which interacts with the db.
  * It has all the methods for saving/fetching books from the db.
+ * The results of the finders of the list endpoints, along with their counts, are kept in the query cache. They are
+ * invalidated by Hibernate whenever the book table is written, including by the bulk deletes. Only the row finders are
+ * cached, as the Entities are not in the second level cache and a cached page of Entities would load them one by one.
  *
  * @author chetanbhatt
  */
-public interface BookRepository extends JpaRepository<Book, String>, JpaSpecificationExecutor<Book> {
+public interface BookRepository extends JpaRepository<Book, UUID>, JpaSpecificationExecutor<Book>, BookRepositoryCustom {
 
-    boolean existsById(String id);
+    boolean existsById(UUID id);
 
     Book saveAndFlush(Book book);
-    void deleteById(String id);
-    Optional<Book> findById(String id);
+    void deleteById(UUID id);
+    Optional<Book> findById(UUID id);
     Page<Book> findByAuthor(String author, final Pageable pageable);
-    Page<Book> findByCategory(String category, final Pageable pageable);
+    Page<Book> findByCategory(Category category, final Pageable pageable);
     Optional<Book> findByNameAndAuthor(String name, String author);
-    Page<Book> findByAuthorAndCategory(String author, String category, final Pageable pageable);
+    Page<Book> findByAuthorAndCategory(String author, Category category, final Pageable pageable);
 
     Page<Book> findAll(final Pageable pageable);
 
     Page<Book> findAll(Specification specification, Pageable pageable);
 
+    // projections of the finders above for the list endpoints, selecting the fields into rows instead of Entities
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    Page<BookRow> findRowsByAuthor(String author, final Pageable pageable);
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    Page<BookRow> findRowsByCategory(Category category, final Pageable pageable);
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    Page<BookRow> findRowsByAuthorAndCategory(String author, Category category, final Pageable pageable);
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    Page<BookRow> findRowsBy(final Pageable pageable);
+
+    // single statement deletes reporting the number of deleted rows, unlike deleteById which loads the Entity first
+    @Transactional
+    @Modifying
+    @Query("delete from Book b where b.id = :id")
+    int deleteRowById(@Param("id") UUID id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Book b where b.id in :ids")
+    int deleteRowsByIdIn(@Param("ids") Collection<UUID> ids);
+
 }
@@ -0,0 +1,109 @@
+package com.example.bookstore.repository;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookView;
+import com.example.bookstore.util.KeysetCursor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Custom queries of the persistence layer which are not expressible as derived queries.
+ *
+ * @author chetanbhatt
+ */
+public interface BookRepositoryCustom {
+
+    /**
+     * Fetches the slice of books ordered by (name, id) which follow the cursor.
+     * No count query is issued, the slice only reports whether a next slice exists.
+     * The fields of the books are projected, no Entity is loaded.
+     *
+     * @param specification filter for the books, may be null
+     * @param cursor position after which the books are fetched, null for the first slice
+     * @param size maximum number of books in the slice
+     * @return Slice of books
+     */
+    Slice<BookView> findAllAfter(Specification<Book> specification, KeysetCursor cursor, int size);
+
+    /**
+     * Fetches the page of books as a slice, without the count query of a page.
+     * One more book than the page size is fetched to find out whether a next slice exists.
+     * The fields of the books are projected, no Entity is loaded.
+     *
+     * @param specification filter for the books, may be null
+     * @param pageable page to fetch, along with its sort
+     * @return Slice of books
+     */
+    Slice<BookView> findSlice(Specification<Book> specification, Pageable pageable);
+
+    /**
+     * Fetches the page of books, projecting their fields rather than loading the Entities.
+     * The count query is skipped when the page itself tells the total.
+     * The projection is a constructor expression of the query, as the fluent findBy(specification, q -> q.as(...)) of
+     * JpaSpecificationExecutor converts the loaded Entities to the projection rather than selecting its fields.
+     *
+     * @param specification filter for the books, may be null
+     * @param pageable page to fetch, along with its sort
+     * @return Page of books
+     */
+    Page<BookView> findViews(Specification<Book> specification, Pageable pageable);
+
+    /**
+     * Inserts the new books in a single transaction.
+     * The books are persisted without a prior select and written through jdbc batching,
+     * the persistence context is cleared afterwards.
+     *
+     * @param books books to insert
+     * @throws org.springframework.dao.DataIntegrityViolationException if a book violates the unique constraint
+     */
+    void insertAll(List<Book> books);
+
+    /**
+     * Fetches the stored books having the name and the author of one of the given books, matched as pairs rather than
+     * as the cross product of the names and the authors. The names are matched with IN as well, so that the query
+     * seeks the unique (name, author) index and only filters the pairs.
+     * The fields of the books are projected, no Entity is loaded.
+     *
+     * @param books books whose (name, author) pairs are looked up, not empty
+     * @return List of the stored books, in no particular order
+     */
+    List<BookView> findByNameAndAuthorOf(Collection<? extends BookView> books);
+
+    /**
+     * Fetches the ids of the books, in no particular order.
+     *
+     * @param specification filter for the books, may be null
+     * @param size maximum number of ids
+     * @return List of ids
+     */
+    List<UUID> findIds(Specification<Book> specification, int size);
+
+    /**
+     * Streams the books with a forward only cursor and a fixed fetch size.
+     * Each book is detached from the persistence context as it is read, so the memory used does not grow
+     * with the number of books. The stream must be consumed within a transaction and closed afterwards.
+     *
+     * @param specification filter for the books, may be null
+     * @return Stream of books
+     */
+    Stream<Book> streamAll(Specification<Book> specification);
+
+    /**
+     * Counts the books grouped by the values of an attribute, with a single GROUP BY query.
+     *
+     * @param specification filter for the books, may be null
+     * @param attribute attribute to group the books by
+     * @param limit maximum number of groups, null for all the groups
+     * @return Counts by value, ordered by descending count and then by value
+     */
+    Map<String, Long> countBy(Specification<Book> specification, String attribute, Integer limit);
+
+}
@@ -0,0 +1,234 @@
+package com.example.bookstore.repository;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookRow;
+import com.example.bookstore.model.BookView;
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.util.KeysetCursor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CompoundSelection;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the custom queries of the persistence layer.
+ *
+ * @author chetanbhatt
+ */
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    static final int STREAM_FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<BookView> findAllAfter(Specification<Book> specification, KeysetCursor cursor, int size) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookView> query = builder.createQuery(BookView.class);
+        Root<Book> root = query.from(Book.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        if (cursor != null) {
+            predicates.add(builder.or(
+                    builder.greaterThan(root.get("name"), cursor.getSortKey()),
+                    builder.and(builder.equal(root.get("name"), cursor.getSortKey()),
+                            builder.greaterThan(root.get("id"), UUID.fromString(cursor.getId())))));
+        }
+        query.select(row(root, builder))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(builder.asc(root.get("name")), builder.asc(root.get("id")));
+
+        // one extra row is fetched to find out whether a next slice exists
+        List<BookView> books = entityManager.createQuery(query)
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = books.size() > size;
+        return new SliceImpl<>(hasNext ? books.subList(0, size) : books, PageRequest.of(0, size), hasNext);
+    }
+
+    @Override
+    public Slice<BookView> findSlice(Specification<Book> specification, Pageable pageable) {
+        List<BookView> books = createViewQuery(specification, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = books.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? books.subList(0, pageable.getPageSize()) : books, pageable, hasNext);
+    }
+
+    @Override
+    public Page<BookView> findViews(Specification<Book> specification, Pageable pageable) {
+        TypedQuery<BookView> query = createViewQuery(specification, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(specification));
+    }
+
+    @Override
+    @Transactional
+    public void insertAll(List<Book> books) {
+        for (Book book : books) {
+            entityManager.persist(book);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public Stream<Book> streamAll(Specification<Book> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = builder.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        query.select(root);
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        return entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    @Override
+    public List<BookView> findByNameAndAuthorOf(Collection<? extends BookView> books) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookView> query = builder.createQuery(BookView.class);
+        Root<Book> root = query.from(Book.class);
+        Set<String> names = new HashSet<>();
+        Predicate[] pairs = new Predicate[books.size()];
+        int i = 0;
+        for (BookView book : books) {
+            names.add(book.getName());
+            pairs[i++] = builder.and(builder.equal(root.get("name"), book.getName()),
+                    builder.equal(root.get("author"), book.getAuthor()));
+        }
+        query.select(row(root, builder))
+                .where(root.get("name").in(names), builder.or(pairs));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<UUID> findIds(Specification<Book> specification, int size) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UUID> query = builder.createQuery(UUID.class);
+        Root<Book> root = query.from(Book.class);
+        query.select(root.get("id"));
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        return entityManager.createQuery(query)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    @Override
+    public Map<String, Long> countBy(Specification<Book> specification, String attribute, Integer limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Book> root = query.from(Book.class);
+        Expression<Object> value = root.get(attribute);
+        Expression<Long> count = builder.count(root);
+        query.multiselect(value, count)
+                .groupBy(value)
+                .orderBy(builder.desc(count), builder.asc(value));
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (limit != null) {
+            typedQuery.setMaxResults(limit);
+        }
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            // categories are converted from their codes, the counts are keyed by their values
+            Object key = tuple.get(value);
+            counts.put(key instanceof Category ? ((Category) key).getValue() : (String) key, tuple.get(count));
+        }
+        return counts;
+    }
+
+    private TypedQuery<BookView> createViewQuery(Specification<Book> specification, Sort sort) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookView> query = builder.createQuery(BookView.class);
+        Root<Book> root = query.from(Book.class);
+        query.select(row(root, builder));
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, builder));
+        }
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Book> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Book> root = query.from(Book.class);
+        query.select(builder.count(root));
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Selects the fields of the book into a row, so that no Entity is loaded into the persistence context.
+     */
+    private static CompoundSelection<BookRow> row(Root<Book> root, CriteriaBuilder builder) {
+        return builder.construct(BookRow.class,
+                root.get("id"), root.get("name"), root.get("author"), root.get("category"));
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.bookstore.repository;
+
+import com.example.bookstore.model.Book;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+
+import java.util.UUID;
+
+/**
+ * This is the non blocking persistence layer of the reactive profile, which interacts with the db through R2DBC.
+ * Pages and searches are run through the R2dbcEntityTemplate with Criteria.
+ *
+ * @author chetanbhatt
+ */
+public interface ReactiveBookRepository extends R2dbcRepository<Book, UUID> {
+
+}
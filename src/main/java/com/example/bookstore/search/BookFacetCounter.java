@@ -0,0 +1,158 @@
+package com.example.bookstore.search;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookFacets;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the books by category, by author and by author and category, maintained as books are added and deleted.
+ * The counters are only complete once the catalog has been loaded.
+ *
+ * @author chetanbhatt
+ */
+@Component
+public class BookFacetCounter implements BookIndex {
+
+    private static final Comparator<BookFacets.Count> BY_COUNT = Comparator.comparingLong(BookFacets.Count::getCount).reversed()
+            .thenComparing(BookFacets.Count::getValue);
+
+    private final LongAdder total = new LongAdder();
+
+    private final Map<String, LongAdder> categories = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> authors = new ConcurrentHashMap<>();
+
+    private final Map<AuthorCategory, LongAdder> authorCategories = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    @Override
+    public void add(Book book) {
+        total.increment();
+        categories.computeIfAbsent(book.getCategory(), key -> new LongAdder()).increment();
+        authors.computeIfAbsent(book.getAuthor(), key -> new LongAdder()).increment();
+        authorCategories.computeIfAbsent(new AuthorCategory(book.getAuthor(), book.getCategory()), key -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void remove(Book book) {
+        total.decrement();
+        decrement(categories, book.getCategory());
+        decrement(authors, book.getAuthor());
+        decrement(authorCategories, new AuthorCategory(book.getAuthor(), book.getCategory()));
+    }
+
+    @Override
+    public void onLoaded() {
+        loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Counts the books by author and/or category.
+     *
+     * @param author null for any author
+     * @param category null for any category
+     * @return number of books
+     */
+    public long count(String author, String category) {
+        if (author != null && category != null) {
+            return sum(authorCategories.get(new AuthorCategory(author, category)));
+        }
+        if (author != null) {
+            return sum(authors.get(author));
+        }
+        if (category != null) {
+            return sum(categories.get(category));
+        }
+        return total.sum();
+    }
+
+    /**
+     * Counts the books of each of the categories.
+     *
+     * @param categoryValues categories to count, in the order to return them
+     * @return List of counts
+     */
+    public List<BookFacets.Count> countByCategory(List<String> categoryValues) {
+        List<BookFacets.Count> counts = new ArrayList<>(categoryValues.size());
+        for (String category : categoryValues) {
+            counts.add(new BookFacets.Count(category, sum(categories.get(category))));
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the authors with the most books.
+     *
+     * @param top number of authors
+     * @return List of counts, ordered by descending count and then by author
+     */
+    public List<BookFacets.Count> topAuthors(int top) {
+        PriorityQueue<BookFacets.Count> heap = new PriorityQueue<>(top + 1, BY_COUNT.reversed());
+        for (Map.Entry<String, LongAdder> entry : authors.entrySet()) {
+            long count = entry.getValue().sum();
+            if (count <= 0) {
+                continue;
+            }
+            heap.add(new BookFacets.Count(entry.getKey(), count));
+            if (heap.size() > top) {
+                heap.poll();
+            }
+        }
+        List<BookFacets.Count> counts = new ArrayList<>(heap);
+        counts.sort(BY_COUNT);
+        return counts;
+    }
+
+    private static <K> void decrement(Map<K, LongAdder> counters, K key) {
+        counters.computeIfPresent(key, (k, counter) -> {
+            counter.decrement();
+            return counter.sum() <= 0 ? null : counter;
+        });
+    }
+
+    private static long sum(LongAdder counter) {
+        return counter == null ? 0 : counter.sum();
+    }
+
+    private static final class AuthorCategory {
+
+        private final String author;
+
+        private final String category;
+
+        private AuthorCategory(String author, String category) {
+            this.author = author;
+            this.category = category;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof AuthorCategory)) {
+                return false;
+            }
+            AuthorCategory other = (AuthorCategory) o;
+            return author.equals(other.author) && category.equals(other.category);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * author.hashCode() + category.hashCode();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.bookstore.search;
+
+import com.example.bookstore.model.Book;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A book matching a full text search along with its relevance score.
+ * @author chetanbhatt
+ */
+@Getter
+@AllArgsConstructor
+public final class BookHit {
+
+    private final Book book;
+
+    private final double score;
+
+}
@@ -0,0 +1,23 @@
+package com.example.bookstore.search;
+
+import com.example.bookstore.model.Book;
+
+/**
+ * In-memory index over the books, kept in sync with the db by the {@link BookIndexer}.
+ * Implementations are called by a single writer at a time, but must support concurrent readers.
+ *
+ * @author chetanbhatt
+ */
+public interface BookIndex {
+
+    void add(Book book);
+
+    void remove(Book book);
+
+    /**
+     * Called once all the books of the catalog have been added.
+     */
+    default void onLoaded() {
+    }
+
+}
@@ -0,0 +1,177 @@
+package com.example.bookstore.search;
+
+import com.example.bookstore.configuration.ReactiveConfig;
+import com.example.bookstore.event.BooksAddedEvent;
+import com.example.bookstore.event.BooksDeletedEvent;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.service.BookService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the in-memory book indexes in sync with the db.
+ * The indexes are built from the catalog in the background, started once the application is ready, or on their first
+ * use when bookstore.search.index.lazy is set, and are then updated as books are added and deleted. Request threads
+ * never wait for the build, they check {@link #isLoaded()} and answer without the indexes until then. Events received before the
+ * build starts are ignored, the build reading the books they carry from the db. While the build runs, the ids of the
+ * deleted books are kept, so that a book deleted after the export read it is not indexed by the build. The text index
+ * holds the indexed books, hence deleted books are resolved from it.
+ *
+ * @author chetanbhatt
+ */
+@Slf4j
+@Component
+@Profile("!" + ReactiveConfig.PROFILE)
+public class BookIndexer {
+
+    private final BookService bookService;
+
+    private final BookTextIndex textIndex;
+
+    private final List<BookIndex> indexes;
+
+    private final boolean lazy;
+
+    private final Executor executor;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private enum State { EMPTY, LOADING, LOADED }
+
+    private volatile State state = State.EMPTY;
+
+    /**
+     * Ids of the books deleted while the build runs, guarded by the indexer.
+     */
+    private final Set<String> deletedWhileLoading = new HashSet<>();
+
+    @Autowired
+    public BookIndexer(BookService bookService, BookTextIndex textIndex, List<BookIndex> indexes,
+                       @Value("${bookstore.search.index.lazy:false}") boolean lazy) {
+        this(bookService, textIndex, indexes, lazy, task -> {
+            Thread thread = new Thread(task, "bookstore-index-load");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    BookIndexer(BookService bookService, BookTextIndex textIndex, List<BookIndex> indexes, boolean lazy, Executor executor) {
+        this.bookService = bookService;
+        this.textIndex = textIndex;
+        this.indexes = indexes;
+        this.lazy = lazy;
+        this.executor = executor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!lazy) {
+            startLoading();
+        }
+    }
+
+    /**
+     * Starts building the indexes in the background unless the build is started already, without waiting for it.
+     */
+    public void startLoading() {
+        if (state == State.LOADED || !started.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                ensureLoaded();
+            } catch (RuntimeException e) {
+                // the events are still applied, the next use restarts the build which skips the books indexed already
+                log.error("Indexing the books failed", e);
+                started.set(false);
+            }
+        });
+    }
+
+    /**
+     * Builds the indexes from the catalog unless they are built already, concurrent callers waiting for the build.
+     * Requests call {@link #startLoading()} instead, this runs on the thread of the background build.
+     */
+    public void ensureLoaded() {
+        if (state == State.LOADED) {
+            return;
+        }
+        synchronized (indexes) {
+            if (state != State.LOADED) {
+                load();
+            }
+        }
+    }
+
+    public boolean isLoaded() {
+        return state == State.LOADED;
+    }
+
+    private void load() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            // from now on the events are applied, the books added before are read by the export
+            state = State.LOADING;
+        }
+        bookService.export(null, null, this::addLoaded);
+        indexes.forEach(BookIndex::onLoaded);
+        synchronized (this) {
+            state = State.LOADED;
+            deletedWhileLoading.clear();
+        }
+        log.info("Indexed {} books in {} ms", textIndex.size(), System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onBooksAdded(BooksAddedEvent event) {
+        if (state != State.EMPTY) {
+            event.getBooks().forEach(this::add);
+        }
+    }
+
+    @EventListener
+    public void onBooksDeleted(BooksDeletedEvent event) {
+        if (state != State.EMPTY) {
+            event.getIds().forEach(this::remove);
+        }
+    }
+
+    private synchronized void addLoaded(Book book) {
+        if (!deletedWhileLoading.contains(book.getId())) {
+            add(book);
+        }
+    }
+
+    private synchronized void add(Book book) {
+        if (textIndex.get(book.getId()) != null) {
+            return;
+        }
+        for (BookIndex index : indexes) {
+            index.add(book);
+        }
+    }
+
+    private synchronized void remove(String id) {
+        if (state == State.LOADING) {
+            deletedWhileLoading.add(id);
+        }
+        Book book = textIndex.get(id);
+        if (book == null) {
+            return;
+        }
+        for (BookIndex index : indexes) {
+            index.remove(book);
+        }
+    }
+}
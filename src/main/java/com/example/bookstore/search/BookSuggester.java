@@ -0,0 +1,136 @@
+package com.example.bookstore.search;
+
+import com.example.bookstore.model.Book;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Typeahead over the names and the authors of the books, backed by a prefix trie for each.
+ * Suggestions are the names and authors starting with the prefix, ignoring case and repeated whitespace, ranked by
+ * the number of books having them. Lookups only walk down the prefix, as the top suggestions are kept in the nodes.
+ * <p>
+ * Memory is bounded by the number of nodes of each trie and by the length of the keys, longer names and authors are
+ * indexed by their beginning. A book only removes the occurrences it added, the names and authors of a book which did
+ * not fit the budget are remembered so that its removal leaves the other books with the same name or author counted.
+ *
+ * @author chetanbhatt
+ */
+@Slf4j
+@Component
+public class BookSuggester implements BookIndex {
+
+    public static final int MAX_LIMIT = 20;
+
+    private static final Comparator<Suggestion> BY_COUNT = Comparator.comparingInt(Suggestion::getCount).reversed()
+            .thenComparing(Suggestion::getText, String.CASE_INSENSITIVE_ORDER);
+
+    private final PrefixTrie names;
+
+    private final PrefixTrie authors;
+
+    private static final int NAME = 1;
+
+    private static final int AUTHOR = 2;
+
+    private final int maxKeyLength;
+
+    private boolean budgetExceeded;
+
+    /**
+     * Keys of the books which were not added within the budget, as NAME and/or AUTHOR flags by book id.
+     */
+    private final Map<String, Integer> skippedKeys = new HashMap<>();
+
+    @Autowired
+    public BookSuggester(@Value("${bookstore.suggest.max-nodes:2000000}") int maxNodes,
+                         @Value("${bookstore.suggest.max-key-length:64}") int maxKeyLength) {
+        this.names = new PrefixTrie(MAX_LIMIT, maxNodes);
+        this.authors = new PrefixTrie(MAX_LIMIT, maxNodes);
+        this.maxKeyLength = maxKeyLength;
+    }
+
+    @Override
+    public void add(Book book) {
+        String name = key(book.getName());
+        String author = key(book.getAuthor());
+        boolean nameAdded = name.isEmpty() || names.add(name, book.getName());
+        boolean authorAdded = author.isEmpty() || authors.add(author, book.getAuthor());
+        if (nameAdded && authorAdded) {
+            return;
+        }
+        skippedKeys.put(book.getId(), (nameAdded ? 0 : NAME) | (authorAdded ? 0 : AUTHOR));
+        if (!budgetExceeded) {
+            budgetExceeded = true;
+            log.warn("Typeahead memory budget exceeded, suggestions are incomplete. names = {} nodes, authors = {} nodes",
+                    names.nodeCount(), authors.nodeCount());
+        }
+    }
+
+    /**
+     * Removes the occurrences added by the book, which must have been added.
+     */
+    @Override
+    public void remove(Book book) {
+        Integer skipped = skippedKeys.isEmpty() ? null : skippedKeys.remove(book.getId());
+        int skippedFlags = skipped == null ? 0 : skipped;
+        if ((skippedFlags & NAME) == 0) {
+            names.remove(key(book.getName()));
+        }
+        if ((skippedFlags & AUTHOR) == 0) {
+            authors.remove(key(book.getAuthor()));
+        }
+    }
+
+    /**
+     * Suggests the names and authors starting with the prefix.
+     *
+     * @param prefix
+     * @param limit at most MAX_LIMIT
+     * @return List of suggestions, ordered by descending count and then by text
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = key(prefix);
+        List<Suggestion> suggestions = new ArrayList<>(2 * limit);
+        for (PrefixTrie.Term term : names.top(key, limit)) {
+            suggestions.add(new Suggestion(term.getText(), Suggestion.Type.NAME, term.getCount()));
+        }
+        for (PrefixTrie.Term term : authors.top(key, limit)) {
+            suggestions.add(new Suggestion(term.getText(), Suggestion.Type.AUTHOR, term.getCount()));
+        }
+        suggestions.sort(BY_COUNT);
+        return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+    }
+
+    private String key(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(Math.min(text.length(), maxKeyLength));
+        boolean space = false;
+        for (int i = 0; i < text.length() && key.length() < maxKeyLength; i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = key.length() > 0;
+                continue;
+            }
+            if (space) {
+                key.append(' ');
+                space = false;
+                if (key.length() == maxKeyLength) {
+                    break;
+                }
+            }
+            key.append(c);
+        }
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+}
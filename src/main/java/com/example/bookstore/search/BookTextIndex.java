@@ -0,0 +1,419 @@
+package com.example.bookstore.search;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.util.BookIds;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index over the name and the author of the books.
+ * Names and authors are split into lower case tokens. Each token is indexed as a whole, for token queries,
+ * and by its trigrams, for substring queries. It also holds the indexed books, along with the tokens of their name
+ * and author, so that the candidates of a query are verified without tokenizing them again.
+ * <p>
+ * Books are numbered by dense int doc ids in the order they are added, and the postings of a token or trigram are the
+ * doc ids of its books, appended in increasing order to an int array. The postings of a query are intersected in place,
+ * the smallest driving a galloping search through the others, and a page is selected with a heap bounded by its end
+ * rather than by sorting all the hits. A deleted book leaves its doc id in the postings until enough books are
+ * deleted for the index to be compacted, its doc ids being renumbered.
+ * <p>
+ * A book matches a query when each query token is a token, or a substring of a token, of its name or author.
+ * Matches in the name weigh more than matches in the author, and whole token matches weigh more than substring matches.
+ *
+ * @author chetanbhatt
+ */
+@Component
+public class BookTextIndex implements BookIndex {
+
+    static final int GRAM_LENGTH = 3;
+
+    /**
+     * Number of deleted books from which the index is compacted, once they are also a quarter of the doc ids.
+     */
+    static final int COMPACTION_THRESHOLD = 1024;
+
+    private static final double NAME_WEIGHT = 2.0;
+
+    private static final double AUTHOR_WEIGHT = 1.0;
+
+    private static final double SUBSTRING_WEIGHT = 0.5;
+
+    /**
+     * Hits by descending score, then by name, then by id so that pages never overlap.
+     */
+    private static final Comparator<BookHit> RANKING = Comparator.comparingDouble(BookHit::getScore).reversed()
+            .thenComparing(hit -> hit.getBook().getName())
+            .thenComparing(hit -> hit.getBook().getUuid());
+
+    /**
+     * Replaced as a whole when the index is compacted, readers hence work on the state they started with.
+     */
+    private volatile IndexState state = new IndexState(1024);
+
+    /**
+     * Number of doc ids of deleted books, only accessed by the writer.
+     */
+    private int deleted;
+
+    public Book get(String id) {
+        UUID uuid = BookIds.parse(id);
+        if (uuid == null) {
+            return null;
+        }
+        IndexState current = state;
+        Integer doc = current.docIds.get(uuid);
+        IndexedBook indexed = doc == null ? null : current.docs[doc];
+        return indexed == null ? null : indexed.book;
+    }
+
+    public int size() {
+        return state.docIds.size();
+    }
+
+    @Override
+    public void add(Book book) {
+        IndexState current = state;
+        if (current.docIds.containsKey(book.getUuid())) {
+            return;
+        }
+        IndexedBook indexed = new IndexedBook(book);
+        int doc = current.append(indexed);
+        for (String token : indexed.tokens()) {
+            IndexState.addPosting(current.tokens, token, doc);
+            for (String gram : gramsOf(token)) {
+                IndexState.addPosting(current.grams, gram, doc);
+            }
+        }
+        current.docIds.put(book.getUuid(), doc);
+    }
+
+    @Override
+    public void remove(Book book) {
+        IndexState current = state;
+        Integer doc = current.docIds.remove(book.getUuid());
+        if (doc == null) {
+            return;
+        }
+        current.docs[doc] = null;
+        deleted++;
+        if (deleted >= COMPACTION_THRESHOLD && deleted >= current.size / 4) {
+            state = current.compact();
+            deleted = 0;
+        }
+    }
+
+    /**
+     * Searches the books matching all the tokens of the text, ordered by descending score and then by name.
+     *
+     * @param text
+     * @param pageable
+     * @return Page of hits
+     */
+    public Page<BookHit> search(String text, Pageable pageable) {
+        List<String> queryTokens = tokenize(text);
+        if (queryTokens.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        IndexState current = state;
+        // a token of the length of a trigram or more is found by its trigrams, which also find it as a whole token
+        List<Postings> postings = new ArrayList<>();
+        for (String queryToken : queryTokens) {
+            if (queryToken.length() < GRAM_LENGTH) {
+                Postings tokenPostings = current.tokens.get(queryToken);
+                if (tokenPostings == null) {
+                    return Page.empty(pageable);
+                }
+                postings.add(tokenPostings);
+                continue;
+            }
+            for (String gram : gramsOf(queryToken)) {
+                Postings gramPostings = current.grams.get(gram);
+                if (gramPostings == null) {
+                    return Page.empty(pageable);
+                }
+                postings.add(gramPostings);
+            }
+        }
+        int lists = postings.size();
+        int[][] docIds = new int[lists][];
+        int[] sizes = new int[lists];
+        postings.sort(Comparator.comparingInt(list -> list.size));
+        for (int i = 0; i < lists; i++) {
+            // the size is read first, the doc ids below it are then all written
+            sizes[i] = postings.get(i).size;
+            docIds[i] = postings.get(i).docIds;
+        }
+        // read after the postings, hence holding every book they refer to
+        IndexedBook[] docs = current.docs;
+
+        int end = (int) Math.min((long) Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        PriorityQueue<BookHit> top = new PriorityQueue<>(Math.min(end, 1024) + 1, RANKING.reversed());
+        int[] positions = new int[lists];
+        long matches = 0;
+        candidates:
+        for (int i = 0; i < sizes[0]; i++) {
+            int doc = docIds[0][i];
+            for (int list = 1; list < lists; list++) {
+                int position = advance(docIds[list], sizes[list], positions[list], doc);
+                positions[list] = position;
+                if (position == sizes[list]) {
+                    break candidates;
+                }
+                if (docIds[list][position] != doc) {
+                    continue candidates;
+                }
+            }
+            IndexedBook indexed = docs[doc];
+            if (indexed == null) {
+                continue;
+            }
+            // trigrams only narrow down the candidates, the substrings themselves are verified here
+            double score = indexed.score(queryTokens);
+            if (score <= 0) {
+                continue;
+            }
+            matches++;
+            BookHit hit = new BookHit(indexed.book, score);
+            if (top.size() < end) {
+                top.add(hit);
+            } else if (RANKING.compare(hit, top.peek()) < 0) {
+                top.poll();
+                top.add(hit);
+            }
+        }
+
+        List<BookHit> hits = new ArrayList<>(top);
+        hits.sort(RANKING);
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        return new PageImpl<>(new ArrayList<>(hits.subList(from, hits.size())), pageable, matches);
+    }
+
+    /**
+     * Gallops from the position to the first doc id not below the target.
+     *
+     * @return the position of that doc id, or the size if there is none
+     */
+    private static int advance(int[] docIds, int size, int from, int target) {
+        int bound = 1;
+        while (from + bound < size && docIds[from + bound] < target) {
+            bound <<= 1;
+        }
+        int low = from + (bound >> 1);
+        int high = Math.min(from + bound + 1, size);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (docIds[middle] < target) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static double fieldScore(String[] fieldTokens, String queryToken) {
+        double score = 0;
+        for (String token : fieldTokens) {
+            if (token.equals(queryToken)) {
+                return 1.0;
+            }
+            if (token.contains(queryToken)) {
+                score = SUBSTRING_WEIGHT;
+            }
+        }
+        return score;
+    }
+
+    private static Set<String> gramsOf(String token) {
+        Set<String> tokenGrams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= token.length(); i++) {
+            tokenGrams.add(token.substring(i, i + GRAM_LENGTH));
+        }
+        return tokenGrams;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> result = new ArrayList<>();
+        if (text == null) {
+            return result;
+        }
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lowerCase.length(); i++) {
+            boolean tokenChar = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                result.add(lowerCase.substring(start, i));
+                start = -1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * An indexed book along with the distinct tokens of its name and of its author, tokenized once when indexed.
+     */
+    private static final class IndexedBook {
+
+        private static final String[] NO_TOKENS = new String[0];
+
+        private final Book book;
+
+        private final String[] nameTokens;
+
+        private final String[] authorTokens;
+
+        private IndexedBook(Book book) {
+            this.book = book;
+            this.nameTokens = new HashSet<>(tokenize(book.getName())).toArray(NO_TOKENS);
+            this.authorTokens = new HashSet<>(tokenize(book.getAuthor())).toArray(NO_TOKENS);
+        }
+
+        private Set<String> tokens() {
+            Set<String> tokens = new HashSet<>(Arrays.asList(nameTokens));
+            tokens.addAll(Arrays.asList(authorTokens));
+            return tokens;
+        }
+
+        /**
+         * @return the score of the book, or 0 if a query token is in neither its name nor its author
+         */
+        private double score(List<String> queryTokens) {
+            double score = 0;
+            for (String queryToken : queryTokens) {
+                double tokenScore = NAME_WEIGHT * fieldScore(nameTokens, queryToken)
+                        + AUTHOR_WEIGHT * fieldScore(authorTokens, queryToken);
+                if (tokenScore == 0) {
+                    return 0;
+                }
+                score += tokenScore;
+            }
+            return score;
+        }
+    }
+
+    /**
+     * Doc ids of a token or trigram in increasing order. Doc ids are appended by the writer below the capacity of the
+     * array, and published to the readers by the size. An array full is copied into new postings replacing these.
+     */
+    private static final class Postings {
+
+        private final int[] docIds;
+
+        private volatile int size;
+
+        private Postings(int[] docIds, int size) {
+            this.docIds = docIds;
+            this.size = size;
+        }
+    }
+
+    /**
+     * The books by doc id and the postings referring to them.
+     */
+    private static final class IndexState {
+
+        private final Map<UUID, Integer> docIds = new ConcurrentHashMap<>();
+
+        private final Map<String, Postings> tokens = new ConcurrentHashMap<>();
+
+        private final Map<String, Postings> grams = new ConcurrentHashMap<>();
+
+        /**
+         * Books by doc id, null once deleted. Replaced by a larger copy when full, before the new doc id is posted.
+         */
+        private volatile IndexedBook[] docs;
+
+        /**
+         * Next doc id, only accessed by the writer.
+         */
+        private int size;
+
+        private IndexState(int capacity) {
+            this.docs = new IndexedBook[Math.max(capacity, 16)];
+        }
+
+        private int append(IndexedBook indexed) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size] = indexed;
+            return size++;
+        }
+
+        /**
+         * Builds the state of the books not deleted, renumbered in the same order so that their postings stay sorted.
+         */
+        private IndexState compact() {
+            IndexState compacted = new IndexState(docIds.size() * 2);
+            int[] renumbered = new int[size];
+            for (int doc = 0; doc < size; doc++) {
+                IndexedBook indexed = docs[doc];
+                if (indexed == null) {
+                    renumbered[doc] = -1;
+                } else {
+                    renumbered[doc] = compacted.append(indexed);
+                    compacted.docIds.put(indexed.book.getUuid(), renumbered[doc]);
+                }
+            }
+            compactPostings(tokens, compacted.tokens, renumbered);
+            compactPostings(grams, compacted.grams, renumbered);
+            return compacted;
+        }
+
+        private static void compactPostings(Map<String, Postings> postings, Map<String, Postings> compacted, int[] renumbered) {
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                Postings list = entry.getValue();
+                int[] docIds = new int[list.size];
+                int size = 0;
+                for (int i = 0; i < docIds.length; i++) {
+                    int doc = renumbered[list.docIds[i]];
+                    if (doc >= 0) {
+                        docIds[size++] = doc;
+                    }
+                }
+                if (size > 0) {
+                    compacted.put(entry.getKey(), new Postings(size == docIds.length ? docIds : Arrays.copyOf(docIds, size), size));
+                }
+            }
+        }
+
+        /**
+         * Appends the doc id, which is never below the doc ids posted before, once per key.
+         */
+        private static void addPosting(Map<String, Postings> postings, String key, int doc) {
+            Postings list = postings.get(key);
+            if (list == null) {
+                postings.put(key, new Postings(new int[] { doc }, 1));
+                return;
+            }
+            int size = list.size;
+            if (list.docIds[size - 1] == doc) {
+                return;
+            }
+            if (size == list.docIds.length) {
+                int[] grown = Arrays.copyOf(list.docIds, size + (size >> 1) + 1);
+                grown[size] = doc;
+                postings.put(key, new Postings(grown, size + 1));
+                return;
+            }
+            list.docIds[size] = doc;
+            list.size = size + 1;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.bookstore.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compact prefix trie of weighted terms, answering the top terms under a prefix.
+ * Each node holds the top terms of its subtree, so that a lookup only walks down the prefix. The arrays of the nodes
+ * are copied on write, hence lookups need no lock while a single writer adds and removes terms. Nodes on a chain,
+ * i.e. without a term and with a single child, share the top terms of their child.
+ * <p>
+ * The number of nodes is capped, terms needing more nodes than left are not added.
+ *
+ * @author chetanbhatt
+ */
+final class PrefixTrie {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final Term[] NO_TERMS = new Term[0];
+
+    static final Comparator<Term> BY_WEIGHT = Comparator.comparingInt(Term::getCount).reversed()
+            .thenComparing(Term::getText, String.CASE_INSENSITIVE_ORDER);
+
+    private final int topSize;
+
+    private final int maxNodes;
+
+    private final Node root = new Node('\0');
+
+    private int nodeCount;
+
+    private int termCount;
+
+    PrefixTrie(int topSize, int maxNodes) {
+        this.topSize = topSize;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Adds an occurrence of the term.
+     *
+     * @param key normalized key of the term
+     * @param text text of the term, the first text added for a key is kept
+     * @return false if the term could not be added within the node budget
+     */
+    synchronized boolean add(String key, String text) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        int depth = 0;
+        while (depth < key.length() && path[depth].child(key.charAt(depth)) != null) {
+            path[depth + 1] = path[depth].child(key.charAt(depth));
+            depth++;
+        }
+        if (nodeCount + key.length() - depth > maxNodes) {
+            return false;
+        }
+        for (; depth < key.length(); depth++) {
+            path[depth + 1] = path[depth].addChild(key.charAt(depth));
+            nodeCount++;
+        }
+        Node node = path[key.length()];
+        Term term = node.term;
+        if (term == null) {
+            term = new Term(text);
+            node.term = term;
+            termCount++;
+        }
+        term.count++;
+        for (int i = path.length - 1; i >= 0; i--) {
+            path[i].top = path[i].isChain() ? path[i].children[0].top : withTerm(path[i].top, term);
+        }
+        return true;
+    }
+
+    /**
+     * Removes an occurrence of the term, and the term itself along with its nodes once none is left.
+     *
+     * @param key normalized key of the term
+     */
+    synchronized void remove(String key) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int depth = 0; depth < key.length(); depth++) {
+            path[depth + 1] = path[depth].child(key.charAt(depth));
+            if (path[depth + 1] == null) {
+                return;
+            }
+        }
+        Term term = path[key.length()].term;
+        if (term == null) {
+            return;
+        }
+        if (--term.count == 0) {
+            path[key.length()].term = null;
+            termCount--;
+        }
+        for (int i = path.length - 1; i >= 0; i--) {
+            Node node = path[i];
+            if (i > 0 && node.term == null && node.children.length == 0) {
+                path[i - 1].removeChild(node.label);
+                nodeCount--;
+                continue;
+            }
+            node.top = node.isChain() ? node.children[0].top : recompute(node);
+        }
+    }
+
+    /**
+     * Gets the top terms starting with the prefix, ordered by descending count and then by text.
+     *
+     * @param prefix normalized prefix
+     * @param limit maximum number of terms, at most the top size of the trie
+     * @return List of terms
+     */
+    List<Term> top(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        Term[] top = node.top;
+        return Arrays.asList(top).subList(0, Math.min(limit, top.length));
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    int termCount() {
+        return termCount;
+    }
+
+    private Term[] withTerm(Term[] top, Term term) {
+        int index = -1;
+        for (int i = 0; i < top.length && index < 0; i++) {
+            if (top[i] == term) {
+                index = i;
+            }
+        }
+        if (index < 0 && top.length == topSize && BY_WEIGHT.compare(term, top[top.length - 1]) >= 0) {
+            return top;
+        }
+        // the count of the term only grows when added, so it can only move up the top terms
+        int position = index < 0 ? top.length : index;
+        while (position > 0 && BY_WEIGHT.compare(term, top[position - 1]) < 0) {
+            position--;
+        }
+        Term[] terms = Arrays.copyOf(top, index < 0 ? Math.min(top.length + 1, topSize) : top.length);
+        int end = index < 0 ? terms.length - 1 : index;
+        System.arraycopy(top, position, terms, position + 1, end - position);
+        terms[position] = term;
+        return terms;
+    }
+
+    private Term[] recompute(Node node) {
+        List<Term> terms = new ArrayList<>();
+        if (node.term != null) {
+            terms.add(node.term);
+        }
+        for (Node child : node.children) {
+            terms.addAll(Arrays.asList(child.top));
+        }
+        terms.sort(BY_WEIGHT);
+        return terms.subList(0, Math.min(topSize, terms.size())).toArray(NO_TERMS);
+    }
+
+    static final class Term {
+
+        private final String text;
+
+        private volatile int count;
+
+        private Term(String text) {
+            this.text = text;
+        }
+
+        String getText() {
+            return text;
+        }
+
+        int getCount() {
+            return count;
+        }
+    }
+
+    private static final class Node {
+
+        private final char label;
+
+        private volatile Node[] children = NO_CHILDREN;
+
+        private volatile Term term;
+
+        private volatile Term[] top = NO_TERMS;
+
+        private Node(char label) {
+            this.label = label;
+        }
+
+        private boolean isChain() {
+            return term == null && children.length == 1;
+        }
+
+        private Node child(char label) {
+            Node[] nodes = children;
+            int index = indexOf(nodes, label);
+            return index < 0 ? null : nodes[index];
+        }
+
+        private Node addChild(char label) {
+            int index = -indexOf(children, label) - 1;
+            Node child = new Node(label);
+            Node[] nodes = new Node[children.length + 1];
+            System.arraycopy(children, 0, nodes, 0, index);
+            nodes[index] = child;
+            System.arraycopy(children, index, nodes, index + 1, children.length - index);
+            children = nodes;
+            return child;
+        }
+
+        private void removeChild(char label) {
+            int index = indexOf(children, label);
+            Node[] nodes = new Node[children.length - 1];
+            System.arraycopy(children, 0, nodes, 0, index);
+            System.arraycopy(children, index + 1, nodes, index, children.length - index - 1);
+            children = nodes;
+        }
+
+        private static int indexOf(Node[] nodes, char label) {
+            int low = 0;
+            int high = nodes.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (nodes[mid].label < label) {
+                    low = mid + 1;
+                } else if (nodes[mid].label > label) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.bookstore.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A typeahead suggestion, i.e. a name or an author along with the number of books having it.
+ * @author chetanbhatt
+ */
+@Getter
+@AllArgsConstructor
+public final class Suggestion {
+
+    public enum Type {
+        NAME, AUTHOR
+    }
+
+    private final String text;
+
+    private final Type type;
+
+    private final int count;
+
+}
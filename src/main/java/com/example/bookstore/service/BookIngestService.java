@@ -0,0 +1,19 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.IngestResult;
+
+/**
+ * Service of the asynchronous ingestion of books, which are queued and written in batches in the background.
+ * @author chetanbhatt
+ */
+public interface BookIngestService {
+
+    boolean isEnabled();
+
+    String submit(Book book) throws BookStoreException;
+
+    IngestResult getResult(String id) throws BookStoreException;
+
+}
@@ -0,0 +1,23 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookFacets;
+import com.example.bookstore.search.BookHit;
+import com.example.bookstore.search.Suggestion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+
+public interface BookSearchService {
+
+    Page<BookHit> search(String text, final Pageable pageable) throws BookStoreException;
+
+    List<Suggestion> suggest(String prefix, int limit) throws BookStoreException;
+
+    BookFacets getFacets(Specification<Book> specification, int top) throws BookStoreException;
+
+}
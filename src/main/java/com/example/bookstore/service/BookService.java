@@ -2,21 +2,50 @@ package com.example.bookstore.service;
 
 import com.example.bookstore.exception.BookStoreException;
 import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookView;
+import com.example.bookstore.model.BulkAddResult;
+import com.example.bookstore.util.KeysetCursor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 
 public interface BookService {
 
     Book add(Book book) throws BookStoreException;
 
+    Book add(Book book, String idempotencyKey) throws BookStoreException;
+
+    List<BulkAddResult> addAll(List<Book> books);
+
     void delete(String id) throws BookStoreException;
 
+    long deleteAll(List<String> ids);
+
+    long deleteAll(String author, String category);
+
     Book get(String id) throws BookStoreException;
 
-    Page<Book> getBooks(String author, String category, final Pageable pageable);
+    Page<BookView> getBooks(String author, String category, final Pageable pageable);
+
+    Page<BookView> getBooks(Specification<Book> specification, final Pageable pageable);
+
+    Slice<BookView> getBookSlice(String author, String category, final Pageable pageable);
+
+    Slice<BookView> getBookSlice(Specification<Book> specification, final Pageable pageable);
+
+    long countBooks(String author, String category);
+
+    long countBooks(String query, Specification<Book> specification);
+
+    Slice<BookView> getBooks(String author, String category, KeysetCursor cursor, int size);
+
+    Slice<BookView> getBooks(Specification<Book> specification, KeysetCursor cursor, int size);
 
-    Page<Book> getBooks(Specification<Book> specification, final Pageable pageable);
+    void export(String author, String category, Consumer<Book> consumer);
 
 }
@@ -0,0 +1,26 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.SnapshotInfo;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Service of the snapshots of the catalog, see {@link com.example.bookstore.snapshot.BookSnapshotWriter} for the format.
+ * @author chetanbhatt
+ */
+public interface BookSnapshotService {
+
+    SnapshotInfo backup();
+
+    int write(Path path);
+
+    int load(Path path);
+
+    /**
+     * Gets the book by id from the snapshot being loaded, if any, so that its books are served before they are inserted.
+     */
+    Optional<Book> get(String id);
+
+}
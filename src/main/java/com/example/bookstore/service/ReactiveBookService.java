@@ -0,0 +1,26 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.model.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.relational.core.query.Criteria;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+public interface ReactiveBookService {
+
+    Mono<Book> add(Book book) throws BookStoreException;
+
+    Mono<Void> delete(String id) throws BookStoreException;
+
+    Mono<Book> get(String id) throws BookStoreException;
+
+    Mono<Page<Book>> getBooks(String author, String category, final Pageable pageable);
+
+    Mono<Page<Book>> getBooks(Criteria criteria, final Pageable pageable);
+
+    Flux<Book> streamBooks(Criteria criteria);
+
+}
@@ -0,0 +1,59 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.util.SearchExpression;
+import com.example.bookstore.util.SearchQueryParser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.example.bookstore.configuration.CacheConfig.SEARCH_QUERIES_CACHE;
+
+/**
+ * Compiles search query strings into Specifications.
+ * Compiled queries are cached by their shape, the query with its values replaced by parameters, rather than by query
+ * string, so queries only differing by their values share a single entry. The shape and the values are scanned from the
+ * query without building its expression, the query is only parsed into an expression on a miss. The values of a query
+ * are then bound to the cached expression of its shape, and are bound as parameters by Hibernate, hence the queries also
+ * share Hibernate's query plans.
+ *
+ * @author chetanbhatt
+ */
+@Component
+public class SearchQueryCompiler {
+
+    private final Cache templates;
+
+    private final Function<String, SearchExpression> parser;
+
+    @Autowired
+    public SearchQueryCompiler(CacheManager cacheManager) {
+        this(cacheManager, SearchQueryParser::parse);
+    }
+
+    SearchQueryCompiler(CacheManager cacheManager, Function<String, SearchExpression> parser) {
+        this.templates = cacheManager.getCache(SEARCH_QUERIES_CACHE);
+        this.parser = parser;
+    }
+
+    /**
+     * Compiles the query string.
+     *
+     * @param query
+     * @return Specification of books
+     * @throws com.example.bookstore.exception.BookStoreException if the query is invalid
+     */
+    public Specification<Book> compile(String query) {
+        List<Object> values = new ArrayList<>();
+        String shape = SearchQueryParser.shape(query, values);
+        // the first query of a shape is parsed into its template, the values of the others are bound to it
+        SearchExpression template = templates.get(shape, () -> parser.apply(query));
+        return template.toSpecification(values.iterator());
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.bookstore.service.impl;
+
+import com.example.bookstore.configuration.ReactiveConfig;
+import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.exception.ErrorCode;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BulkAddResult;
+import com.example.bookstore.model.IngestResult;
+import com.example.bookstore.service.BookIngestService;
+import com.example.bookstore.service.BookService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.example.bookstore.configuration.CacheConfig.INGEST_RESULTS_CACHE;
+
+/**
+ * Service class implementation of the asynchronous ingestion, enabled by bookstore.ingest.async.
+ * <p>
+ * Submitted books are appended to a lock-free queue, bounded by reserving a slot of bookstore.ingest.queue-capacity
+ * before the append, and a request finding the queue full is rejected rather than blocked. A single writer thread
+ * drains the queue in batches of at most bookstore.ingest.max-batch-size books through {@link BookService#addAll(List)},
+ * hence multi-row inserts, and writes a batch once full or once its first book waited bookstore.ingest.max-latency-ms.
+ * A queued book is pending in a map of its own, which is never evicted, until its batch is written and its outcome
+ * moved to the ingest results cache.
+ * On shutdown the queue is closed, in the same atomic step as the reservations, and the writer drains it before
+ * stopping, so that every accepted book is written and every book submitted afterwards is rejected.
+ *
+ * @author chetanbhatt
+ */
+@Service
+@Slf4j
+@Profile("!" + ReactiveConfig.PROFILE)
+public class BookIngestServiceImpl implements BookIngestService, DisposableBean {
+
+    private final BookService bookService;
+
+    private final Cache results;
+
+    private final boolean enabled;
+
+    private final int capacity;
+
+    private final int maxBatchSize;
+
+    private final long maxLatencyNanos;
+
+    private final Queue<Book> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Ids of the queued books, removed once their outcome is in the results cache.
+     */
+    private final Map<String, Boolean> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Set in the state once the queue is closed.
+     */
+    private static final int CLOSED = 1 << 30;
+
+    /**
+     * Number of books queued, counted before they are appended to the queue so that it is never exceeded, and the
+     * {@link #CLOSED} flag.
+     */
+    private final AtomicInteger state;
+
+    private final Thread writer;
+
+    @Autowired
+    public BookIngestServiceImpl(BookService bookService, CacheManager cacheManager,
+                                 @Value("${bookstore.ingest.async}") boolean enabled,
+                                 @Value("${bookstore.ingest.queue-capacity}") int capacity,
+                                 @Value("${bookstore.ingest.max-batch-size}") int maxBatchSize,
+                                 @Value("${bookstore.ingest.max-latency-ms}") long maxLatencyMillis) {
+        if (capacity < 1 || capacity >= CLOSED || maxBatchSize < 1 || maxBatchSize >= CLOSED || maxLatencyMillis < 0) {
+            throw new IllegalArgumentException("Queue capacity and batch size must be positive, latency not negative");
+        }
+        this.bookService = bookService;
+        this.results = cacheManager.getCache(INGEST_RESULTS_CACHE);
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+        this.state = new AtomicInteger(enabled ? 0 : CLOSED);
+        if (enabled) {
+            writer = new Thread(this::drain, "book-ingest-writer");
+            writer.setDaemon(true);
+            writer.start();
+            log.info("Books are ingested asynchronously, in batches of up to {} books every {} ms", maxBatchSize, maxLatencyMillis);
+        } else {
+            writer = null;
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the book to be added by the writer.
+     *
+     * @param book
+     * @return the id of the book, whose outcome is pending until its batch is written
+     * @throws BookStoreException if the queue is full, or closed
+     */
+    @Override
+    public String submit(Book book) throws BookStoreException {
+        int queued;
+        do {
+            queued = state.get();
+            if ((queued & CLOSED) != 0) {
+                throw new BookStoreException(ErrorCode.INGEST_STOPPED, null,
+                        "Books are not ingested asynchronously, the application may be stopping");
+            }
+            if (queued >= capacity) {
+                throw new BookStoreException(ErrorCode.INGEST_QUEUE_FULL, Map.of("capacity", capacity),
+                        "Too many books are waiting to be added, retry later");
+            }
+        } while (!state.compareAndSet(queued, queued + 1));
+        pending.put(book.getId(), Boolean.TRUE);
+        queue.offer(book);
+        // the writer waits for a first book, then for a full batch
+        if (queued == 0 || queued + 1 == maxBatchSize) {
+            LockSupport.unpark(writer);
+        }
+        return book.getId();
+    }
+
+    /**
+     * @throws BookStoreException if no book was submitted with the id, or its outcome expired
+     */
+    @Override
+    public IngestResult getResult(String id) throws BookStoreException {
+        // an outcome is put in the cache before the book is no longer pending, hence pending is looked up first
+        if (pending.containsKey(id)) {
+            return IngestResult.pending(id);
+        }
+        IngestResult result = results.get(id, IngestResult.class);
+        if (result == null) {
+            throw new BookStoreException(ErrorCode.BOOK_NOT_FOUND, Map.of("id", id),
+                    String.format("No book submitted with id %s", id));
+        }
+        return result;
+    }
+
+    /**
+     * Closes the queue and stops the writer once the queued books are written.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (writer != null) {
+            state.getAndUpdate(queued -> queued | CLOSED);
+            LockSupport.unpark(writer);
+            writer.join();
+        }
+    }
+
+    /**
+     * Writes the queued books until the queue is closed and empty. Once closed no book is reserved anymore, hence the
+     * books reserved before are all written.
+     */
+    private void drain() {
+        int queued;
+        while ((queued = state.get()) != CLOSED) {
+            if (queued == 0) {
+                LockSupport.park(this);
+                continue;
+            }
+            long deadline = System.nanoTime() + maxLatencyNanos;
+            long remaining;
+            while ((queued = state.get()) < maxBatchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+            write(queued & ~CLOSED);
+        }
+    }
+
+    private void write(int queued) {
+        List<Book> batch = new ArrayList<>(Math.min(queued, maxBatchSize));
+        Book book;
+        while (batch.size() < maxBatchSize && (book = queue.poll()) != null) {
+            batch.add(book);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        state.addAndGet(-batch.size());
+        try {
+            List<BulkAddResult> batchResults = bookService.addAll(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                String id = batch.get(i).getId();
+                results.put(id, IngestResult.of(id, batchResults.get(i)));
+                pending.remove(id);
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not add a batch of {} books", batch.size(), e);
+            for (Book failed : batch) {
+                results.put(failed.getId(), IngestResult.failed(failed.getId(), e.getMessage()));
+                pending.remove(failed.getId());
+            }
+        }
+    }
+}
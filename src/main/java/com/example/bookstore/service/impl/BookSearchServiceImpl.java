@@ -0,0 +1,166 @@
+package com.example.bookstore.service.impl;
+
+import com.example.bookstore.configuration.ReactiveConfig;
+import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.exception.ErrorCode;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookFacets;
+import com.example.bookstore.repository.BookRepository;
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.search.BookFacetCounter;
+import com.example.bookstore.search.BookHit;
+import com.example.bookstore.search.BookIndexer;
+import com.example.bookstore.search.BookSuggester;
+import com.example.bookstore.search.BookTextIndex;
+import com.example.bookstore.search.Suggestion;
+import com.example.bookstore.service.BookSearchService;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.example.bookstore.configuration.MetricsConfig.SERVICE_TIMER;
+
+/**
+ *
+ * Service class implementation of the full text search, the typeahead and the facets, answered from the in-memory indexes.
+ * The indexes are built in the background. Until they are, the full text search and the typeahead are unavailable and
+ * the facets are counted by the db, rather than holding the request threads.
+ *
+ * @author chetanbhatt
+ */
+@Service
+@Slf4j
+@Timed(value = SERVICE_TIMER, histogram = true)
+@Profile("!" + ReactiveConfig.PROFILE)
+public class BookSearchServiceImpl implements BookSearchService {
+
+    public static final int MAX_FACET_TOP = 100;
+
+    private static final List<String> CATEGORIES = Arrays.stream(Category.values())
+            .map(Category::getValue)
+            .collect(Collectors.toUnmodifiableList());
+
+    private BookTextIndex textIndex;
+
+    private BookSuggester suggester;
+
+    private BookFacetCounter facetCounter;
+
+    private BookRepository bookRepository;
+
+    private BookIndexer indexer;
+
+    @Autowired
+    public BookSearchServiceImpl(BookTextIndex textIndex, BookSuggester suggester, BookFacetCounter facetCounter, BookRepository bookRepository,
+                                 BookIndexer indexer) {
+        this.textIndex = textIndex;
+        this.suggester = suggester;
+        this.facetCounter = facetCounter;
+        this.bookRepository = bookRepository;
+        this.indexer = indexer;
+    }
+
+    /**
+     * Searches the books by the tokens of their name and author, ranked by relevance.
+     *
+     * @param text
+     * @param pageable
+     * @return Page of hits
+     * @throws BookStoreException if the text has no token, or the index is not built yet
+     */
+    @Override
+    public Page<BookHit> search(String text, Pageable pageable) throws BookStoreException {
+        if(pageable == null){
+            throw new IllegalArgumentException("Pageable must not be null");
+        }
+        if(text == null || text.trim().isEmpty()){
+            throw new BookStoreException(ErrorCode.VALIDATION_ERROR, null, "Invalid search text");
+        }
+        log.info("Full text search, page = {}, size = {}", pageable.getPageNumber(), pageable.getPageSize());
+        requireIndexes();
+        return textIndex.search(text, pageable);
+    }
+
+    /**
+     * Suggests the names and authors of the books starting with the prefix.
+     *
+     * @param prefix
+     * @param limit
+     * @return List of suggestions
+     * @throws BookStoreException if the prefix is blank, the limit is out of range, or the index is not built yet
+     */
+    @Override
+    public List<Suggestion> suggest(String prefix, int limit) throws BookStoreException {
+        if(prefix == null || prefix.trim().isEmpty()){
+            throw new BookStoreException(ErrorCode.VALIDATION_ERROR, null, "Invalid prefix");
+        }
+        if(limit < 1 || limit > BookSuggester.MAX_LIMIT){
+            throw new BookStoreException(ErrorCode.VALIDATION_ERROR, Map.of("limit", limit, "max", BookSuggester.MAX_LIMIT),
+                    String.format("Limit must be between 1 and %d", BookSuggester.MAX_LIMIT));
+        }
+        requireIndexes();
+        return suggester.suggest(prefix, limit);
+    }
+
+    /**
+     * Counts the books by category, and the top authors, among the books matching the specification.
+     * Without a specification the counts are read from the maintained counters once they are loaded.
+     * Otherwise, or while the counters are loaded in the background, they are computed with GROUP BY queries, the total being the sum of the category counts.
+     *
+     * @param specification filter for the books, may be null
+     * @param top number of authors
+     * @return BookFacets
+     * @throws BookStoreException if top is out of range
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public BookFacets getFacets(Specification<Book> specification, int top) throws BookStoreException {
+        if(top < 1 || top > MAX_FACET_TOP){
+            throw new BookStoreException(ErrorCode.VALIDATION_ERROR, Map.of("top", top, "max", MAX_FACET_TOP),
+                    String.format("Top must be between 1 and %d", MAX_FACET_TOP));
+        }
+        if(specification == null){
+            if(facetCounter.isLoaded()){
+                return new BookFacets(facetCounter.count(null, null), facetCounter.countByCategory(CATEGORIES), facetCounter.topAuthors(top));
+            }
+            indexer.startLoading();
+        }
+        log.info("Counting facets by specification");
+        Map<String, Long> categoryCounts = bookRepository.countBy(specification, "category", null);
+        List<BookFacets.Count> categories = new ArrayList<>(CATEGORIES.size());
+        long total = 0;
+        for (String category : CATEGORIES) {
+            long count = categoryCounts.getOrDefault(category, 0L);
+            categories.add(new BookFacets.Count(category, count));
+            total += count;
+        }
+        List<BookFacets.Count> authors = bookRepository.countBy(specification, "author", top).entrySet().stream()
+                .map(entry -> new BookFacets.Count(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+        return new BookFacets(total, categories, authors);
+    }
+
+    /**
+     * Starts building the indexes if need be, without waiting for them.
+     *
+     * @throws BookStoreException if the indexes are not built yet
+     */
+    private void requireIndexes() throws BookStoreException {
+        if(!indexer.isLoaded()){
+            indexer.startLoading();
+            throw new BookStoreException(ErrorCode.INDEX_LOADING, null, "The search indexes are being built, retry later");
+        }
+    }
+}
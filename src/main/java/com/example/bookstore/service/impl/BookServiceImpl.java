@@ -1,21 +1,59 @@
 package com.example.bookstore.service.impl;
 
+import com.example.bookstore.configuration.ReactiveConfig;
+import com.example.bookstore.event.BooksAddedEvent;
+import com.example.bookstore.event.BooksDeletedEvent;
 import com.example.bookstore.exception.BookStoreException;
 import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookView;
+import com.example.bookstore.model.BulkAddResult;
 import com.example.bookstore.repository.BookRepository;
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.search.BookFacetCounter;
 import com.example.bookstore.service.BookService;
+import com.example.bookstore.util.BookIds;
+import com.example.bookstore.util.BookSpecificationsBuilder;
+import com.example.bookstore.util.Categories;
+import com.example.bookstore.util.KeysetCursor;
+import com.example.bookstore.util.SearchOperation;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static com.example.bookstore.configuration.CacheConfig.BOOKS_CACHE;
+import static com.example.bookstore.configuration.CacheConfig.BOOK_COUNTS_CACHE;
+import static com.example.bookstore.configuration.CacheConfig.IDEMPOTENCY_KEYS_CACHE;
+import static com.example.bookstore.configuration.MetricsConfig.SERVICE_TIMER;
 import static com.example.bookstore.exception.ErrorCode.BOOK_ALREADY_EXIST;
 import static com.example.bookstore.exception.ErrorCode.BOOK_NOT_FOUND;
+import static com.example.bookstore.exception.ErrorCode.VALIDATION_ERROR;
 
 /**
  *
@@ -25,65 +63,286 @@ import static com.example.bookstore.exception.ErrorCode.BOOK_NOT_FOUND;
  */
 @Service
 @Slf4j
+@Timed(value = SERVICE_TIMER, histogram = true)
+@Profile("!" + ReactiveConfig.PROFILE)
 public class BookServiceImpl implements BookService {
 
+    static final int BULK_CHUNK_SIZE = 1000;
+
     private BookRepository bookRepository;
 
+    private ApplicationEventPublisher eventPublisher;
+
+    private BookFacetCounter facetCounter;
+
+    private Cache idempotencyKeys;
+
     @Autowired
-    public BookServiceImpl(BookRepository bookRepository) {
+    public BookServiceImpl(BookRepository bookRepository, ApplicationEventPublisher eventPublisher, BookFacetCounter facetCounter,
+                           CacheManager cacheManager) {
         this.bookRepository = bookRepository;
+        this.eventPublisher = eventPublisher;
+        this.facetCounter = facetCounter;
+        this.idempotencyKeys = cacheManager.getCache(IDEMPOTENCY_KEYS_CACHE);
     }
 
     /**
-     * Adds the book in DB.
+     * Adds the book in DB and populates the books cache with it.
+     * The book is inserted straight away, a book with the same name and author is detected by the unique
+     * constraint of the table, which also holds for concurrent adds.
      * @param book
      * @return Book
      * @throws BookStoreException
      */
     @Override
+    @CachePut(cacheNames = BOOKS_CACHE, key = "#result.id")
     public Book add(Book book) throws BookStoreException {
         validate(book);
-        Optional<Book> bookInDb = bookRepository.findByNameAndAuthor(book.getName(), book.getAuthor());
-        if(bookInDb.isPresent()){
+        return insert(book);
+    }
+
+    /**
+     * Adds the book in DB once per idempotency key, and populates the books cache with it.
+     * A retry with the same key returns the book added by the first request instead of failing as a duplicate,
+     * while the key is kept in the idempotency keys cache. Concurrent requests with the same key add the book once.
+     * @param book
+     * @param idempotencyKey key supplied by the client, the book is added as by {@link #add(Book)} when null
+     * @return Book
+     * @throws BookStoreException if the book already exists, or if the key was used for another book
+     */
+    @Override
+    @CachePut(cacheNames = BOOKS_CACHE, key = "#result.id")
+    public Book add(Book book, String idempotencyKey) throws BookStoreException {
+        validate(book);
+        if(idempotencyKey == null){
+            return insert(book);
+        }
+        Book addedBook;
+        try {
+            addedBook = idempotencyKeys.get(idempotencyKey, () -> insert(book));
+        } catch (Cache.ValueRetrievalException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        if(addedBook != book && !(addedBook.getName().equals(book.getName())
+                && addedBook.getAuthor().equals(book.getAuthor()) && addedBook.getCategory().equals(book.getCategory()))){
+            throw new BookStoreException(VALIDATION_ERROR, Map.of("idempotencyKey", idempotencyKey),
+                    String.format("Idempotency key %s was already used for another book", idempotencyKey));
+        }
+        return addedBook;
+    }
+
+    private Book insert(Book book) {
+        log.info("Saving book in db, id = {}", book.getId());
+        try {
+            bookRepository.insertAll(List.of(book));
+        } catch (DataIntegrityViolationException e) {
             throw new BookStoreException(BOOK_ALREADY_EXIST, Map.of("name", book.getName(), "author", book.getAuthor()),
                     String.format("Book already exists with name %s and author %s", book.getName(), book.getAuthor()));
         }
-        log.info("Saving book in db, id = {}", book.getId());
-        return bookRepository.save(book);
+        eventPublisher.publishEvent(new BooksAddedEvent(List.of(book)));
+        return book;
+    }
+
+    /**
+     * Adds the books in DB in chunks, each chunk being inserted in its own transaction.
+     * Books which are invalid or which already exist, either in DB or earlier in the same request,
+     * are skipped. Existence is checked with a single query per chunk.
+     *
+     * @param books
+     * @return outcome for each of the books, in the same order as the books
+     */
+    @Override
+    public List<BulkAddResult> addAll(List<Book> books) {
+        if(books == null){
+            throw new IllegalArgumentException("Books must not be null");
+        }
+        List<BulkAddResult> results = new ArrayList<>(books.size());
+        Set<String> seen = new HashSet<>();
+        for(int from = 0; from < books.size(); from += BULK_CHUNK_SIZE){
+            List<Book> chunk = books.subList(from, Math.min(from + BULK_CHUNK_SIZE, books.size()));
+            List<BulkAddResult> chunkResults = addChunk(chunk, seen);
+            List<Book> createdBooks = new ArrayList<>(chunk.size());
+            for(int i = 0; i < chunk.size(); i++){
+                if(chunkResults.get(i).getStatus() == BulkAddResult.Status.CREATED){
+                    createdBooks.add(chunk.get(i));
+                }
+            }
+            if(!createdBooks.isEmpty()){
+                eventPublisher.publishEvent(new BooksAddedEvent(createdBooks));
+            }
+            results.addAll(chunkResults);
+        }
+        return results;
+    }
+
+    private List<BulkAddResult> addChunk(List<Book> chunk, Set<String> seen) {
+        BulkAddResult[] results = new BulkAddResult[chunk.size()];
+        Map<String, Integer> candidates = new HashMap<>();
+        for(int i = 0; i < chunk.size(); i++){
+            Book book = chunk.get(i);
+            try {
+                validate(book);
+            } catch (IllegalArgumentException e) {
+                results[i] = BulkAddResult.invalid(e.getMessage());
+                continue;
+            }
+            if(!seen.add(naturalKey(book.getName(), book.getAuthor()))){
+                results[i] = BulkAddResult.duplicate(book);
+                continue;
+            }
+            candidates.put(naturalKey(book.getName(), book.getAuthor()), i);
+        }
+        if(!candidates.isEmpty()){
+            List<Book> candidateBooks = new ArrayList<>(candidates.size());
+            for(int index : candidates.values()){
+                candidateBooks.add(chunk.get(index));
+            }
+            for(BookView existing : bookRepository.findByNameAndAuthorOf(candidateBooks)){
+                Integer index = candidates.remove(naturalKey(existing.getName(), existing.getAuthor()));
+                if(index != null){
+                    results[index] = BulkAddResult.duplicate(chunk.get(index));
+                }
+            }
+        }
+        List<Book> newBooks = new ArrayList<>(candidates.size());
+        for(int i = 0; i < chunk.size(); i++){
+            if(results[i] == null){
+                newBooks.add(chunk.get(i));
+            }
+        }
+        if(!newBooks.isEmpty()){
+            log.info("Saving {} books in db", newBooks.size());
+            try {
+                bookRepository.insertAll(newBooks);
+                for(int i = 0; i < chunk.size(); i++){
+                    if(results[i] == null){
+                        results[i] = BulkAddResult.created(chunk.get(i));
+                    }
+                }
+            } catch (DataIntegrityViolationException e) {
+                log.info("Chunk conflicts with concurrently added books, saving books one by one");
+                for(int i = 0; i < chunk.size(); i++){
+                    if(results[i] == null){
+                        results[i] = insertOne(chunk.get(i));
+                    }
+                }
+            }
+        }
+        return List.of(results);
+    }
+
+    private BulkAddResult insertOne(Book book) {
+        try {
+            bookRepository.insertAll(List.of(book));
+            return BulkAddResult.created(book);
+        } catch (DataIntegrityViolationException e) {
+            return BulkAddResult.duplicate(book);
+        }
+    }
+
+    private static String naturalKey(String name, String author) {
+        return name + '\u0000' + author;
+    }
+
+    private static Page<BookView> views(Page<? extends BookView> page) {
+        return page.map(row -> row);
     }
 
     /**
-     * Deletes the book specified by id.
+     * Deletes the book specified by id and evicts it from the books cache.
+     * The book is deleted with a single statement, no book being deleted means that it does not exist.
+     * The cache and the indexes are keyed by the canonical id, see {@link BookIds#canonical(String)}, whatever the
+     * case of the id.
      *
      * @param id
      * @throws BookStoreException
      */
     @Override
+    @CacheEvict(cacheNames = BOOKS_CACHE, key = "T(com.example.bookstore.util.BookIds).canonical(#id)", condition = "#id != null")
     public void delete(String id) throws BookStoreException {
         if(id == null){
             throw new IllegalArgumentException("Invalid argument, id is null");
         }
-        if(!bookRepository.existsById(id)){
+        log.info("Deleting book, id = {}", id);
+        UUID uuid = BookIds.parse(id);
+        if(uuid == null || bookRepository.deleteRowById(uuid) == 0){
             throw new BookStoreException(BOOK_NOT_FOUND, Map.of("id", id), String.format("Book with id %s does not exist", id));
         }
-        log.info("Deleting book, id = {}", id);
-        bookRepository.deleteById(id);
+        // the indexes hold the canonical ids
+        eventPublisher.publishEvent(new BooksDeletedEvent(List.of(uuid.toString())));
+    }
+
+    /**
+     * Deletes the books specified by ids, in batches each deleted with a single statement in its own transaction.
+     * Ids of books which do not exist are ignored. The books and counts caches are cleared.
+     *
+     * @param ids
+     * @return number of deleted books
+     */
+    @Override
+    @CacheEvict(cacheNames = { BOOKS_CACHE, BOOK_COUNTS_CACHE }, allEntries = true)
+    public long deleteAll(List<String> ids) {
+        if(ids == null){
+            throw new IllegalArgumentException("Ids must not be null");
+        }
+        List<UUID> distinctIds = ids.stream().map(BookIds::parse).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        long deleted = 0;
+        for(int from = 0; from < distinctIds.size(); from += BULK_CHUNK_SIZE){
+            deleted += deleteBatch(distinctIds.subList(from, Math.min(from + BULK_CHUNK_SIZE, distinctIds.size())));
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes the books by author and/or category, in batches each deleted with a single statement in its own
+     * transaction. The ids of a batch are selected first, so that the indexes are told which books were deleted.
+     * The books and counts caches are cleared.
+     *
+     * @param author
+     * @param category
+     * @return number of deleted books
+     */
+    @Override
+    @CacheEvict(cacheNames = { BOOKS_CACHE, BOOK_COUNTS_CACHE }, allEntries = true)
+    public long deleteAll(String author, String category) {
+        if(author == null && category == null){
+            throw new IllegalArgumentException("Author or category must not be null");
+        }
+        Specification<Book> specification = filter(author, category);
+        long deleted = 0;
+        List<UUID> ids;
+        while(!(ids = bookRepository.findIds(specification, BULK_CHUNK_SIZE)).isEmpty()){
+            deleted += deleteBatch(ids);
+        }
+        return deleted;
+    }
+
+    private int deleteBatch(List<UUID> ids) {
+        int deleted = bookRepository.deleteRowsByIdIn(ids);
+        log.info("Deleted {} books in db", deleted);
+        if(deleted > 0){
+            eventPublisher.publishEvent(new BooksDeletedEvent(ids.stream().map(UUID::toString).collect(Collectors.toList())));
+        }
+        return deleted;
     }
 
     /**
      * Gets the book specified by id.
+     * The book is read through the books cache, keyed by its canonical id, the db is queried only on a cache miss.
      *
      * @param id
      * @return Book
      * @throws BookStoreException
      */
     @Override
+    @Cacheable(cacheNames = BOOKS_CACHE, key = "T(com.example.bookstore.util.BookIds).canonical(#id)", condition = "#id != null")
     public Book get(String id) throws BookStoreException {
         if(id == null || id.isEmpty()){
             throw new IllegalArgumentException("Invalid argument, id is null");
         }
         log.info("Fetching book, id = {}", id);
-        Optional<Book> book = bookRepository.findById(id);
+        UUID uuid = BookIds.parse(id);
+        Optional<Book> book = uuid == null ? Optional.empty() : bookRepository.findById(uuid);
         if(book.isEmpty()){
             throw new BookStoreException(BOOK_NOT_FOUND, Map.of("id", id), String.format("Book with id %s does not exist", id));
         }
@@ -91,7 +350,8 @@ public class BookServiceImpl implements BookService {
     }
 
     /**
-     * Gets the Page of books as specified by the parameters
+     * Gets the Page of books as specified by the parameters.
+     * The fields of the books are projected within a read only transaction, no Entity is loaded.
      *
      * @param author
      * @param category
@@ -99,41 +359,180 @@ public class BookServiceImpl implements BookService {
      * @return Page of books
      */
     @Override
-    public Page<Book> getBooks(String author, String category, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<BookView> getBooks(String author, String category, Pageable pageable) {
         if(pageable == null){
             throw new IllegalArgumentException("Pageable must not be null");
         }
         log.info("Page = {}, size = {}", pageable.getPageNumber(), pageable.getPageSize());
+        Category categoryType = Categories.fromValue(category);
+        if(category != null && categoryType == null){
+            log.info("No books of unknown category {}", category);
+            return Page.empty(pageable);
+        }
         if(author != null && category != null){
             log.info("Fetching books by author {} and category {}", author, category);
-            return bookRepository.findByAuthorAndCategory(author, category, pageable);
+            return views(bookRepository.findRowsByAuthorAndCategory(author, categoryType, pageable));
         }
         if(author != null){
             log.info("Fetching books by author {}", author);
-            return bookRepository.findByAuthor(author, pageable);
+            return views(bookRepository.findRowsByAuthor(author, pageable));
         }
         if(category != null){
             log.info("Fetching books by category {}", category);
-            return bookRepository.findByCategory(category, pageable);
+            return views(bookRepository.findRowsByCategory(categoryType, pageable));
         }
         log.info("Fetching all books");
-        return bookRepository.findAll(pageable);
+        return views(bookRepository.findRowsBy(pageable));
     }
 
     /**
-     * Searches for books as specified by search criteria defined in Specification
+     * Searches for books as specified by search criteria defined in Specification.
+     * The fields of the books are projected within a read only transaction, no Entity is loaded.
      *
      * @param specification
      * @param pageable
      * @return Page of books
      */
     @Override
-    public Page<Book> getBooks(Specification<Book> specification, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<BookView> getBooks(Specification<Book> specification, Pageable pageable) {
         if(pageable == null){
             throw new IllegalArgumentException("Pageable must not be null");
         }
         log.info("Fetching books by specification, page = {}, size = {}", pageable.getPageNumber(), pageable.getPageSize());
-        return bookRepository.findAll(specification, pageable);
+        return bookRepository.findViews(specification, pageable);
+    }
+
+    /**
+     * Gets the page of books as specified by the parameters as a Slice, without a count query.
+     *
+     * @param author
+     * @param category
+     * @param pageable
+     * @return Slice of books
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookView> getBookSlice(String author, String category, Pageable pageable) {
+        return getBookSlice(filter(author, category), pageable);
+    }
+
+    /**
+     * Searches for the page of books as specified by search criteria defined in Specification as a Slice,
+     * without a count query.
+     *
+     * @param specification
+     * @param pageable
+     * @return Slice of books
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookView> getBookSlice(Specification<Book> specification, Pageable pageable) {
+        if(pageable == null){
+            throw new IllegalArgumentException("Pageable must not be null");
+        }
+        log.info("Fetching slice of books, page = {}, size = {}", pageable.getPageNumber(), pageable.getPageSize());
+        return bookRepository.findSlice(specification, pageable);
+    }
+
+    /**
+     * Counts the books by author and/or category from the maintained counters.
+     * The count query is only run until the counters are loaded.
+     *
+     * @param author
+     * @param category
+     * @return number of books
+     */
+    @Override
+    public long countBooks(String author, String category) {
+        if(facetCounter.isLoaded()){
+            return facetCounter.count(author, category);
+        }
+        return bookRepository.count(filter(author, category));
+    }
+
+    /**
+     * Counts the books matching the search query, the count is cached by query.
+     * Hence it lags behind books added and deleted until it expires from the cache.
+     *
+     * @param query the search query, used as the key of the cache
+     * @param specification the compiled search query
+     * @return number of books
+     */
+    @Override
+    @Cacheable(cacheNames = BOOK_COUNTS_CACHE, key = "#query.trim()")
+    public long countBooks(String query, Specification<Book> specification) {
+        log.info("Counting books by specification");
+        return bookRepository.count(specification);
+    }
+
+    /**
+     * Gets the Slice of books following the cursor, as specified by the parameters.
+     * Books are ordered by (name, id) and no count query is issued.
+     *
+     * @param author
+     * @param category
+     * @param cursor
+     * @param size
+     * @return Slice of books
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookView> getBooks(String author, String category, KeysetCursor cursor, int size) {
+        log.info("Fetching books by author {} and category {} after cursor", author, category);
+        return getBooks(filter(author, category), cursor, size);
+    }
+
+    /**
+     * Searches for the Slice of books following the cursor, as specified by search criteria defined in Specification.
+     * Books are ordered by (name, id) and no count query is issued.
+     *
+     * @param specification
+     * @param cursor
+     * @param size
+     * @return Slice of books
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookView> getBooks(Specification<Book> specification, KeysetCursor cursor, int size) {
+        if(size <= 0){
+            throw new IllegalArgumentException("Size must be greater than zero");
+        }
+        log.info("Fetching books by specification after cursor, size = {}", size);
+        return bookRepository.findAllAfter(specification, cursor, size);
+    }
+
+    /**
+     * Streams all the books as specified by the parameters to the consumer.
+     * Books are read with a forward only cursor within a read only transaction, and are detached once read,
+     * hence the memory used does not depend on the number of books.
+     *
+     * @param author
+     * @param category
+     * @param consumer
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void export(String author, String category, Consumer<Book> consumer) {
+        if(consumer == null){
+            throw new IllegalArgumentException("Consumer must not be null");
+        }
+        log.info("Exporting books by author {} and category {}", author, category);
+        try (Stream<Book> books = bookRepository.streamAll(filter(author, category))) {
+            books.forEach(consumer);
+        }
+    }
+
+    private Specification<Book> filter(String author, String category){
+        BookSpecificationsBuilder builder = new BookSpecificationsBuilder();
+        if(author != null){
+            builder.with("author", SearchOperation.SIMPLE_OPERATION_SET, author);
+        }
+        if(category != null){
+            builder.with("category", SearchOperation.SIMPLE_OPERATION_SET, category);
+        }
+        return builder.build();
     }
 
     private void validate(Book book){
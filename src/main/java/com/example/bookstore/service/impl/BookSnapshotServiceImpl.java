@@ -0,0 +1,196 @@
+package com.example.bookstore.service.impl;
+
+import com.example.bookstore.configuration.ReactiveConfig;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.SnapshotInfo;
+import com.example.bookstore.repository.BookRepository;
+import com.example.bookstore.service.BookService;
+import com.example.bookstore.service.BookSnapshotService;
+import com.example.bookstore.snapshot.BookSnapshot;
+import com.example.bookstore.snapshot.BookSnapshotWriter;
+import com.example.bookstore.util.BookIds;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Service class implementation of the snapshots.
+ * <p>
+ * A snapshot is written from a single query over the books, which reads a consistent view of the catalog as of its
+ * start while the writes go on, and is moved in place only once complete.
+ * A snapshot is loaded at startup when bookstore.snapshot.load is set. Its books are inserted directly in chunks, without
+ * the duplicate check query nor the events of {@link BookService#addAll(List)}, and a chunk conflicting with the stored
+ * books is inserted book by book, skipping them. The in-memory indexes are built once from the db afterwards, when the
+ * application is ready. While a snapshot is loaded, its books are looked up by id in its index by {@link #get(String)}, so
+ * that reads by id are served from the mapped file before the books are inserted.
+ *
+ * @author chetanbhatt
+ */
+@Service
+@Slf4j
+@Profile("!" + ReactiveConfig.PROFILE)
+public class BookSnapshotServiceImpl implements BookSnapshotService {
+
+    static final int LOAD_CHUNK_SIZE = 1000;
+
+    private final BookService bookService;
+
+    private final BookRepository bookRepository;
+
+    private final Path directory;
+
+    private final String loadPath;
+
+    /**
+     * The snapshot being loaded, if any. Its mapping outlives the file, hence it is read safely even once closed.
+     */
+    private volatile BookSnapshot loading;
+
+    @Autowired
+    public BookSnapshotServiceImpl(BookService bookService, BookRepository bookRepository,
+                                   @Value("${bookstore.snapshot.dir}") String directory,
+                                   @Value("${bookstore.snapshot.load:}") String loadPath) {
+        this.bookService = bookService;
+        this.bookRepository = bookRepository;
+        this.directory = Paths.get(directory);
+        this.loadPath = loadPath;
+    }
+
+    /**
+     * Writes a snapshot of all the books to a new file of the snapshot directory.
+     *
+     * @return the name of the file and the number of books
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public SnapshotInfo backup() {
+        String name = "books-" + System.currentTimeMillis() + ".snapshot";
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new SnapshotInfo(name, write(directory.resolve(name)));
+    }
+
+    /**
+     * Writes a snapshot of all the books to the path, replacing the file once the snapshot is complete.
+     *
+     * @param path
+     * @return the number of books written
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public int write(Path path) {
+        long start = System.currentTimeMillis();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            int count;
+            try (BookSnapshotWriter writer = new BookSnapshotWriter(temporary)) {
+                bookService.export(null, null, book -> {
+                    try {
+                        writer.write(book);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                count = writer.count();
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote {} books to snapshot {} in {} ms", count, path, System.currentTimeMillis() - start);
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                log.warn("Could not delete {}", temporary, e);
+            }
+        }
+    }
+
+    /**
+     * Adds the books of the snapshot at the path which are not stored yet.
+     * Meant for the startup, as the in-memory indexes are not updated.
+     *
+     * @param path
+     * @return the number of books added
+     */
+    @Override
+    public int load(Path path) {
+        long start = System.currentTimeMillis();
+        int[] created = {0};
+        try (BookSnapshot snapshot = BookSnapshot.open(path)) {
+            loading = snapshot;
+            List<Book> chunk = new ArrayList<>(LOAD_CHUNK_SIZE);
+            snapshot.forEach(book -> {
+                chunk.add(book);
+                if (chunk.size() == LOAD_CHUNK_SIZE) {
+                    created[0] += addAll(chunk);
+                }
+            });
+            created[0] += addAll(chunk);
+            log.info("Loaded {} of {} books from snapshot {} in {} ms", created[0], snapshot.size(), path,
+                    System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            loading = null;
+        }
+        return created[0];
+    }
+
+    @Override
+    public Optional<Book> get(String id) {
+        BookSnapshot snapshot = loading;
+        UUID uuid = BookIds.parse(id);
+        return snapshot == null || uuid == null ? Optional.empty() : snapshot.get(uuid);
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void onStarted() {
+        if (!loadPath.isEmpty()) {
+            load(Paths.get(loadPath));
+        }
+    }
+
+    private int addAll(List<Book> chunk) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        int created = 0;
+        try {
+            bookRepository.insertAll(chunk);
+            created = chunk.size();
+        } catch (DataIntegrityViolationException e) {
+            for (Book book : chunk) {
+                try {
+                    bookRepository.insertAll(List.of(book));
+                    created++;
+                } catch (DataIntegrityViolationException duplicate) {
+                    // already stored
+                }
+            }
+        }
+        chunk.clear();
+        return created;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.bookstore.service.impl;
+
+import com.example.bookstore.configuration.ReactiveConfig;
+import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.repository.ReactiveBookRepository;
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.service.ReactiveBookService;
+import com.example.bookstore.util.BookIds;
+import com.example.bookstore.util.Categories;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static com.example.bookstore.exception.ErrorCode.BOOK_ALREADY_EXIST;
+import static com.example.bookstore.exception.ErrorCode.BOOK_NOT_FOUND;
+
+/**
+ *
+ * Service class implementation of the reactive profile, which holds the non blocking service methods.
+ *
+ * @author chetanbhatt
+ */
+@Service
+@Slf4j
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveBookServiceImpl implements ReactiveBookService {
+
+    private ReactiveBookRepository bookRepository;
+
+    private R2dbcEntityTemplate entityTemplate;
+
+    @Autowired
+    public ReactiveBookServiceImpl(ReactiveBookRepository bookRepository, R2dbcEntityTemplate entityTemplate) {
+        this.bookRepository = bookRepository;
+        this.entityTemplate = entityTemplate;
+    }
+
+    /**
+     * Adds the book, a book with the same name and author is rejected by the unique constraint of the db.
+     *
+     * @param book
+     * @return Book
+     * @throws BookStoreException
+     */
+    @Override
+    public Mono<Book> add(Book book) {
+        if(book == null){
+            throw new IllegalArgumentException("Book must not be null");
+        }
+        return entityTemplate.insert(book)
+                .doOnNext(added -> log.info("Book added, id = {}", added.getId()))
+                .onErrorMap(DataIntegrityViolationException.class, e -> new BookStoreException(BOOK_ALREADY_EXIST,
+                        Map.of("name", book.getName(), "author", book.getAuthor()),
+                        String.format("Book already exists with name %s and author %s", book.getName(), book.getAuthor())));
+    }
+
+    /**
+     * Deletes the book specified by id
+     *
+     * @param id
+     * @throws BookStoreException
+     */
+    @Override
+    public Mono<Void> delete(String id) {
+        if(id == null){
+            throw new IllegalArgumentException("Id must not be null");
+        }
+        UUID uuid = BookIds.parse(id);
+        if(uuid == null){
+            return Mono.error(notFound(id));
+        }
+        return entityTemplate.delete(Query.query(Criteria.where("id").is(uuid)), Book.class)
+                .flatMap(deleted -> deleted == 0 ? Mono.<Void>error(notFound(id)) : Mono.<Void>empty());
+    }
+
+    /**
+     * Gets the book specified by id
+     *
+     * @param id
+     * @return Book
+     * @throws BookStoreException
+     */
+    @Override
+    public Mono<Book> get(String id) {
+        if(id == null){
+            throw new IllegalArgumentException("Id must not be null");
+        }
+        UUID uuid = BookIds.parse(id);
+        if(uuid == null){
+            return Mono.error(notFound(id));
+        }
+        return bookRepository.findById(uuid)
+                .switchIfEmpty(Mono.error(() -> notFound(id)));
+    }
+
+    /**
+     * Gets the Page of books as specified by the parameters
+     *
+     * @param author
+     * @param category
+     * @param pageable
+     * @return Page of books
+     */
+    @Override
+    public Mono<Page<Book>> getBooks(String author, String category, Pageable pageable) {
+        Criteria criteria = Criteria.empty();
+        if(author != null){
+            criteria = criteria.and("author").is(author);
+        }
+        if(category != null){
+            Category categoryType = Categories.fromValue(category);
+            if(categoryType == null){
+                return Mono.just(Page.empty(pageable));
+            }
+            criteria = criteria.and("category").is(Categories.code(categoryType));
+        }
+        return getBooks(criteria, pageable);
+    }
+
+    /**
+     * Searches for the Page of books as specified by search criteria, the books and their count are queried
+     * concurrently.
+     *
+     * @param criteria
+     * @param pageable
+     * @return Page of books
+     */
+    @Override
+    public Mono<Page<Book>> getBooks(Criteria criteria, Pageable pageable) {
+        if(pageable == null){
+            throw new IllegalArgumentException("Pageable must not be null");
+        }
+        log.info("Fetching books by criteria, page = {}, size = {}", pageable.getPageNumber(), pageable.getPageSize());
+        Mono<Long> count = entityTemplate.select(Book.class).matching(Query.query(criteria)).count();
+        return entityTemplate.select(Book.class)
+                .matching(Query.query(criteria).with(pageable))
+                .all()
+                .collectList()
+                .zipWith(count, (books, total) -> new PageImpl<>(books, pageable, total));
+    }
+
+    /**
+     * Streams all the books matching the search criteria.
+     * Rows are read from the db as they are requested downstream, hence as fast as the client consumes them.
+     *
+     * @param criteria
+     * @return Flux of books
+     */
+    @Override
+    public Flux<Book> streamBooks(Criteria criteria) {
+        log.info("Streaming books by criteria");
+        return entityTemplate.select(Book.class)
+                .matching(Query.query(criteria))
+                .all();
+    }
+
+    private static BookStoreException notFound(String id) {
+        return new BookStoreException(BOOK_NOT_FOUND, Map.of("id", id), String.format("Book with id %s does not exist", id));
+    }
+}
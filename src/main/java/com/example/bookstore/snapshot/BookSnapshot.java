@@ -0,0 +1,148 @@
+package com.example.bookstore.snapshot;
+
+import com.example.bookstore.model.Book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * A snapshot file written by {@link BookSnapshotWriter}, mapped read only into memory.
+ * Books are either streamed in the order they were written, or looked up by id with a binary search over the index of
+ * the snapshot, without reading the snapshot into the heap. Reads are thread safe.
+ * <p>
+ * The mapping is released by the garbage collector, closing the snapshot only closes the file.
+ * @author chetanbhatt
+ */
+public final class BookSnapshot implements Closeable {
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final String[] categories;
+
+    private final int dictionaryOffset;
+
+    private final int indexOffset;
+
+    private final int count;
+
+    private BookSnapshot(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        int size = buffer.capacity();
+        int footer = size - BookSnapshotWriter.FOOTER_SIZE;
+        if (buffer.getInt(0) != BookSnapshotWriter.MAGIC || buffer.getInt(size - 4) != BookSnapshotWriter.MAGIC) {
+            throw new IOException("Not a book snapshot");
+        }
+        if (buffer.getInt(4) != BookSnapshotWriter.VERSION || buffer.getInt(footer + 12) != BookSnapshotWriter.VERSION) {
+            throw new IOException("Unsupported book snapshot version " + buffer.getInt(4));
+        }
+        this.dictionaryOffset = buffer.getInt(footer);
+        this.indexOffset = buffer.getInt(footer + 4);
+        this.count = buffer.getInt(footer + 8);
+        if (dictionaryOffset < BookSnapshotWriter.HEADER_SIZE || indexOffset <= dictionaryOffset || count < 0
+                || (long) indexOffset + (long) BookSnapshotWriter.INDEX_ENTRY_SIZE * count != footer) {
+            throw new IOException("Corrupt book snapshot");
+        }
+        ByteBuffer dictionary = buffer.duplicate();
+        dictionary.position(dictionaryOffset);
+        this.categories = new String[dictionary.get() & 0xFF];
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = readString(dictionary);
+        }
+    }
+
+    /**
+     * Opens the snapshot at the path.
+     *
+     * @param path
+     * @return the snapshot
+     * @throws IOException if the file can not be read or is not a complete snapshot
+     */
+    public static BookSnapshot open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < BookSnapshotWriter.HEADER_SIZE + BookSnapshotWriter.FOOTER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a book snapshot");
+            }
+            return new BookSnapshot(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Passes the books to the consumer in the order they were written.
+     *
+     * @param consumer
+     */
+    public void forEach(Consumer<Book> consumer) {
+        ByteBuffer records = buffer.duplicate();
+        records.position(BookSnapshotWriter.HEADER_SIZE);
+        while (records.position() < dictionaryOffset) {
+            consumer.accept(readBook(records));
+        }
+    }
+
+    /**
+     * Looks up the book by id with a binary search over the index.
+     *
+     * @param id
+     * @return the book, or empty if the snapshot does not hold it
+     */
+    public Optional<Book> get(UUID id) {
+        long mostSigBits = id.getMostSignificantBits();
+        long leastSigBits = id.getLeastSignificantBits();
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = indexOffset + BookSnapshotWriter.INDEX_ENTRY_SIZE * middle;
+            int compare = BookSnapshotWriter.compare(buffer.getLong(entry), buffer.getLong(entry + 8), mostSigBits, leastSigBits);
+            if (compare < 0) {
+                low = middle + 1;
+            } else if (compare > 0) {
+                high = middle - 1;
+            } else {
+                ByteBuffer records = buffer.duplicate();
+                records.position(buffer.getInt(entry + 16));
+                return Optional.of(readBook(records));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private Book readBook(ByteBuffer records) {
+        UUID id = new UUID(records.getLong(), records.getLong());
+        String name = readString(records);
+        String author = readString(records);
+        return new Book(id, name, author, categories[records.get() & 0xFF]);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
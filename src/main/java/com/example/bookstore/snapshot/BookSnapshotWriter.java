@@ -0,0 +1,246 @@
+package com.example.bookstore.snapshot;
+
+import com.example.bookstore.model.Book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes books to a snapshot file, appending one record per book through a memory mapped window of the file.
+ * <p>
+ * The layout is a header, the records, the category dictionary, the id index and a footer:
+ * <pre>
+ * header     magic (int), version (int)
+ * record     id as its 16 bytes (two longs), name, author as length (unsigned short) prefixed UTF-8, category code (byte)
+ * dictionary number of categories (byte), then each category as a length prefixed UTF-8 string
+ * index      for each book by increasing id, its id (two longs) and the offset of its record (int)
+ * footer     offset of the dictionary (int), offset of the index (int), number of books (int), version (int), magic (int)
+ * </pre>
+ * All numbers are big endian, ids are ordered by their most then least significant bits compared as unsigned, and as
+ * offsets are ints a snapshot is limited to 2 GB.
+ * The ids and offsets of the index, 20 bytes per book, are held in memory until the writer is closed and sorts them.
+ * The file is complete once the writer is closed, the footer being written last.
+ * @author chetanbhatt
+ */
+public final class BookSnapshotWriter implements Closeable {
+
+    static final int MAGIC = 0x424B534E;
+
+    static final int VERSION = 3;
+
+    static final int HEADER_SIZE = 8;
+
+    static final int FOOTER_SIZE = 20;
+
+    static final int INDEX_ENTRY_SIZE = 20;
+
+    static final int MAX_CATEGORIES = 255;
+
+    private static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+    private final FileChannel channel;
+
+    private final int windowSize;
+
+    private MappedByteBuffer window;
+
+    private long windowStart;
+
+    private final Map<String, Integer> categoryCodes = new HashMap<>();
+
+    private final List<byte[]> categories = new ArrayList<>();
+
+    private long[] mostSigBits = new long[1024];
+
+    private long[] leastSigBits = new long[1024];
+
+    private int[] offsets = new int[1024];
+
+    private int count;
+
+    public BookSnapshotWriter(Path path) throws IOException {
+        this(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    BookSnapshotWriter(Path path, int windowSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.windowSize = windowSize;
+        try {
+            reserve(HEADER_SIZE);
+            window.putInt(MAGIC).putInt(VERSION);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends the book to the snapshot.
+     *
+     * @param book
+     * @throws IOException
+     */
+    public void write(Book book) throws IOException {
+        UUID id = book.getUuid();
+        byte[] name = encode(book.getName());
+        byte[] author = encode(book.getAuthor());
+        int code = categoryCode(book.getCategory());
+        int offset = reserve(16 + 4 + name.length + author.length + 1);
+        window.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        put(name);
+        put(author);
+        window.put((byte) code);
+        if (count == offsets.length) {
+            mostSigBits = Arrays.copyOf(mostSigBits, count * 2);
+            leastSigBits = Arrays.copyOf(leastSigBits, count * 2);
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        mostSigBits[count] = id.getMostSignificantBits();
+        leastSigBits[count] = id.getLeastSignificantBits();
+        offsets[count] = offset;
+        count++;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Writes the dictionary, the index and the footer, and truncates the file to its content.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            int dictionaryOffset = reserve(1);
+            window.put((byte) categories.size());
+            for (byte[] category : categories) {
+                reserve(2 + category.length);
+                put(category);
+            }
+            sortIndex();
+            int indexOffset = position();
+            for (int i = 0; i < count; i++) {
+                reserve(INDEX_ENTRY_SIZE);
+                window.putLong(mostSigBits[i]).putLong(leastSigBits[i]).putInt(offsets[i]);
+            }
+            reserve(FOOTER_SIZE);
+            window.putInt(dictionaryOffset).putInt(indexOffset).putInt(count).putInt(VERSION).putInt(MAGIC);
+            int size = position();
+            window.force();
+            window = null;
+            channel.truncate(size);
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    static int compare(long mostSigBits, long leastSigBits, long otherMostSigBits, long otherLeastSigBits) {
+        int compare = Long.compareUnsigned(mostSigBits, otherMostSigBits);
+        return compare != 0 ? compare : Long.compareUnsigned(leastSigBits, otherLeastSigBits);
+    }
+
+    /**
+     * Sorts the index entries by id with a heap sort, in place over the arrays of the entries.
+     */
+    private void sortIndex() {
+        for (int i = count / 2 - 1; i >= 0; i--) {
+            siftDown(i, count);
+        }
+        for (int end = count - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+    }
+
+    private void siftDown(int root, int end) {
+        int child;
+        while ((child = 2 * root + 1) < end) {
+            if (child + 1 < end && less(child, child + 1)) {
+                child++;
+            }
+            if (!less(root, child)) {
+                return;
+            }
+            swap(root, child);
+            root = child;
+        }
+    }
+
+    private boolean less(int i, int j) {
+        return compare(mostSigBits[i], leastSigBits[i], mostSigBits[j], leastSigBits[j]) < 0;
+    }
+
+    private void swap(int i, int j) {
+        long most = mostSigBits[i];
+        mostSigBits[i] = mostSigBits[j];
+        mostSigBits[j] = most;
+        long least = leastSigBits[i];
+        leastSigBits[i] = leastSigBits[j];
+        leastSigBits[j] = least;
+        int offset = offsets[i];
+        offsets[i] = offsets[j];
+        offsets[j] = offset;
+    }
+
+    private int categoryCode(String category) {
+        Integer code = categoryCodes.get(category);
+        if (code == null) {
+            if (categories.size() == MAX_CATEGORIES) {
+                throw new IllegalStateException("A snapshot holds at most " + MAX_CATEGORIES + " categories");
+            }
+            code = categories.size();
+            categories.add(encode(category));
+            categoryCodes.put(category, code);
+        }
+        return code;
+    }
+
+    /**
+     * Makes sure the window has room for size bytes, mapping the next window of the file if not.
+     *
+     * @return the offset in the file at which the bytes are written
+     */
+    private int reserve(int size) throws IOException {
+        long position = window == null ? 0 : windowStart + window.position();
+        if (position + size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("A snapshot is limited to " + Integer.MAX_VALUE + " bytes");
+        }
+        if (window == null || window.remaining() < size) {
+            if (window != null) {
+                window.force();
+            }
+            window = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(windowSize, size));
+            windowStart = position;
+        }
+        return (int) position;
+    }
+
+    private int position() {
+        return (int) (windowStart + window.position());
+    }
+
+    private void put(byte[] value) {
+        window.putShort((short) value.length).put(value);
+    }
+
+    private static byte[] encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Field of " + bytes.length + " bytes is too long for a snapshot");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.bookstore.transformer;
+
+import com.example.bookstore.model.Book;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class writes books to an output stream one at a time, either as newline delimited JSON or as CSV.
+ * Each book is converted and written as it arrives, the books are never collected.
+ *
+ * @author chetanbhatt
+ */
+public abstract class BookExportWriter implements Closeable {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public enum Format {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public static Format fromValue(String value) {
+            for (Format format : Format.values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unexpected value '" + value + "'");
+        }
+    }
+
+    public static BookExportWriter of(Format format, OutputStream outputStream) throws IOException {
+        switch (format) {
+            case CSV:
+                return new CsvWriter(outputStream);
+            default:
+                return new NdjsonWriter(outputStream);
+        }
+    }
+
+    public abstract void write(Book book) throws IOException;
+
+    private static final class NdjsonWriter extends BookExportWriter {
+
+        private final JsonGenerator generator;
+
+        private NdjsonWriter(OutputStream outputStream) throws IOException {
+            // every line ends with a newline, the last one included
+            this.generator = OBJECT_MAPPER.getFactory().createGenerator(outputStream)
+                    .setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(Book book) throws IOException {
+            generator.writeObject(ModelTransformer.fromModelToRest.apply(book));
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvWriter extends BookExportWriter {
+
+        private final Writer writer;
+
+        private CsvWriter(OutputStream outputStream) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writer.write("id,name,author,category\n");
+        }
+
+        @Override
+        public void write(Book book) throws IOException {
+            writer.write(escape(book.getId()));
+            writer.write(',');
+            writer.write(escape(book.getName()));
+            writer.write(',');
+            writer.write(escape(book.getAuthor()));
+            writer.write(',');
+            writer.write(escape(book.getCategory()));
+            writer.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.bookstore.transformer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+
+/**
+ * Message converter writing the {@link BookPageResponse} with the {@link BookPageJsonWriter}, straight into the
+ * output stream of the response. It uses the json factory of the object mapper of the application.
+ *
+ * @author chetanbhatt
+ */
+public class BookPageHttpMessageConverter extends AbstractHttpMessageConverter<BookPageResponse> {
+
+    private final ObjectMapper objectMapper;
+
+    public BookPageHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return BookPageResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected BookPageResponse readInternal(Class<? extends BookPageResponse> clazz, HttpInputMessage inputMessage)
+            throws HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("Book pages can not be read", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(BookPageResponse response, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            if (objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+                generator.useDefaultPrettyPrinter();
+            }
+            BookPageJsonWriter.write(response, generator);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.bookstore.transformer;
+
+import com.example.bookstore.model.BookView;
+import com.example.bookstore.rest.Category;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * This class writes a paged response of books as JSON, straight from the views of the books of the db.
+ * Field names and categories are encoded once, and no rest model is created for the books. The JSON is the same as
+ * the one of the rest models, fields are written in the same order and null fields are written as null.
+ *
+ * @author chetanbhatt
+ */
+public final class BookPageJsonWriter {
+
+    private static final SerializableString BOOKS = new SerializedString("books");
+
+    private static final SerializableString TOTAL_ITEMS = new SerializedString("total-items");
+
+    private static final SerializableString CURRENT_PAGE = new SerializedString("current-page");
+
+    private static final SerializableString TOTAL_PAGES = new SerializedString("total-pages");
+
+    private static final SerializableString NEXT_CURSOR = new SerializedString("next-cursor");
+
+    private static final SerializableString HAS_NEXT = new SerializedString("has-next");
+
+    private static final SerializableString TOTALS_APPROXIMATE = new SerializedString("totals-approximate");
+
+    private static final SerializableString ID = new SerializedString("id");
+
+    private static final SerializableString NAME = new SerializedString("name");
+
+    private static final SerializableString AUTHOR = new SerializedString("author");
+
+    private static final SerializableString CATEGORY = new SerializedString("category");
+
+    private static final Map<String, SerializableString> CATEGORIES = Arrays.stream(Category.values())
+            .collect(Collectors.toUnmodifiableMap(Category::getValue, category -> new SerializedString(category.getValue())));
+
+    private BookPageJsonWriter() {
+    }
+
+    public static void write(BookPageResponse response, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(BOOKS);
+        List<? extends BookView> books = response.getViews();
+        if (books == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartArray();
+            for (BookView book : books) {
+                writeBook(book, generator);
+            }
+            generator.writeEndArray();
+        }
+        generator.writeFieldName(TOTAL_ITEMS);
+        if (response.getTotalItems() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(response.getTotalItems());
+        }
+        writeInteger(CURRENT_PAGE, response.getCurrentPage(), generator);
+        writeInteger(TOTAL_PAGES, response.getTotalPages(), generator);
+        writeString(NEXT_CURSOR, response.getNextCursor(), generator);
+        writeBoolean(HAS_NEXT, response.getHasNext(), generator);
+        writeBoolean(TOTALS_APPROXIMATE, response.getTotalsApproximate(), generator);
+        generator.writeEndObject();
+    }
+
+    private static void writeBook(BookView book, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeString(ID, book.getId(), generator);
+        writeString(NAME, book.getName(), generator);
+        writeString(AUTHOR, book.getAuthor(), generator);
+        generator.writeFieldName(CATEGORY);
+        SerializableString category = book.getCategory() == null ? null : CATEGORIES.get(book.getCategory());
+        if (category != null) {
+            generator.writeString(category);
+        } else {
+            generator.writeString(book.getCategory());
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeString(SerializableString name, String value, JsonGenerator generator) throws IOException {
+        generator.writeFieldName(name);
+        generator.writeString(value);
+    }
+
+    private static void writeInteger(SerializableString name, Integer value, JsonGenerator generator) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    private static void writeBoolean(SerializableString name, Boolean value, JsonGenerator generator) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeBoolean(value);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.bookstore.transformer;
+
+import com.example.bookstore.model.BookView;
+import com.example.bookstore.rest.PagedBookResponse;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+/**
+ * Paged response of books which holds the views of the books of the db rather than their rest models.
+ * It is written straight from the views by the {@link BookPageHttpMessageConverter}, other converters get the
+ * rest models, converted on demand.
+ *
+ * @author chetanbhatt
+ */
+public class BookPageResponse extends PagedBookResponse {
+
+    private final List<? extends BookView> views;
+
+    public BookPageResponse(List<? extends BookView> views) {
+        this.views = views;
+    }
+
+    @JsonIgnore
+    public List<? extends BookView> getViews() {
+        return views;
+    }
+
+    @Override
+    public List<com.example.bookstore.rest.Book> getBooks() {
+        return views == null ? null : ModelTransformer.fromModelListToRestList.apply(views);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.bookstore.transformer;
+
+import com.example.bookstore.rest.BulkAddBookResult;
+import com.example.bookstore.rest.BulkAddStatus;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * This class writes a bulk add response to an output stream as its results arrive, in the shape of a
+ * BulkAddBookResponse: the results first, then the counts once all the results are written.
+ * The results of a chunk are written and flushed as soon as the chunk is added, the results are never collected.
+ *
+ * @author chetanbhatt
+ */
+public class BulkAddResponseWriter implements Closeable {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final JsonGenerator generator;
+
+    private long created;
+
+    private long duplicates;
+
+    private long invalid;
+
+    public BulkAddResponseWriter(OutputStream outputStream) throws IOException {
+        this.generator = OBJECT_MAPPER.getFactory().createGenerator(outputStream);
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("results");
+    }
+
+    public void write(List<BulkAddBookResult> results) throws IOException {
+        for (BulkAddBookResult result : results) {
+            if (result.getStatus() == BulkAddStatus.CREATED) {
+                created++;
+            } else if (result.getStatus() == BulkAddStatus.DUPLICATE) {
+                duplicates++;
+            } else {
+                invalid++;
+            }
+            generator.writeObject(result);
+        }
+        generator.flush();
+    }
+
+    /**
+     * Ends the results and writes the counts.
+     */
+    @Override
+    public void close() throws IOException {
+        generator.writeEndArray();
+        generator.writeNumberField("created", created);
+        generator.writeNumberField("duplicates", duplicates);
+        generator.writeNumberField("invalid", invalid);
+        generator.writeEndObject();
+        generator.close();
+    }
+}
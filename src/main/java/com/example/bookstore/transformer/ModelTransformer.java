@@ -1,6 +1,19 @@
 package com.example.bookstore.transformer;
 
 import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookFacets;
+import com.example.bookstore.model.BookView;
+import com.example.bookstore.model.BulkAddResult;
+import com.example.bookstore.search.BookHit;
+import com.example.bookstore.search.Suggestion;
+import com.example.bookstore.rest.AddBookRequest;
+import com.example.bookstore.rest.BookSearchHit;
+import com.example.bookstore.rest.BulkAddBookResult;
+import com.example.bookstore.rest.BulkAddStatus;
+import com.example.bookstore.rest.FacetCount;
+import com.example.bookstore.rest.FacetResponse;
+import com.example.bookstore.rest.SuggestionType;
+import com.example.bookstore.util.Categories;
 
 import java.util.List;
 import java.util.function.Function;
@@ -14,21 +27,62 @@ import java.util.stream.Collectors;
  */
 public class ModelTransformer {
 
-    public static Function<Book, com.example.bookstore.rest.Book> fromModelToRest = (Book b)-> {
+    public static Function<BookView, com.example.bookstore.rest.Book> fromModelToRest = (BookView b)-> {
         com.example.bookstore.rest.Book book = new com.example.bookstore.rest.Book();
         book.setId(b.getId());
         book.setName(b.getName());
-        book.setCategory(com.example.bookstore.rest.Category.fromValue(b.getCategory()));
+        book.setCategory(Categories.fromValue(b.getCategory()));
         book.setAuthor(b.getAuthor());
         return book;
     };
 
-    public static Function<List<Book>, List<com.example.bookstore.rest.Book>> fromModelListToRestList =
-            (List<Book> list)-> list.stream().map(book -> fromModelToRest.apply(book)).collect(Collectors.toList());
+    public static Function<List<? extends BookView>, List<com.example.bookstore.rest.Book>> fromModelListToRestList =
+            (List<? extends BookView> list)-> list.stream().map(book -> fromModelToRest.apply(book)).collect(Collectors.toList());
 
     public static Function<com.example.bookstore.rest.Book, Book> fromRestToModel =
             (com.example.bookstore.rest.Book b)-> new Book(b.getName(), b.getAuthor(), b.getCategory());
-}
 
+    /**
+     * Requests without a category are converted to null, as the domain model can not hold them.
+     */
+    public static Function<AddBookRequest, Book> fromAddRequestToModel =
+            (AddBookRequest r)-> r == null || r.getCategory() == null ? null : new Book(r.getName(), r.getAuthor(), r.getCategory());
+
+    public static Function<BulkAddResult, BulkAddBookResult> fromBulkAddResultToRest = (BulkAddResult r)-> {
+        BulkAddBookResult result = new BulkAddBookResult();
+        result.setId(r.getId());
+        result.setStatus(BulkAddStatus.fromValue(r.getStatus().name()));
+        result.setMessage(r.getMessage());
+        return result;
+    };
+
+    public static Function<BookHit, BookSearchHit> fromBookHitToRest = (BookHit h)-> {
+        BookSearchHit hit = new BookSearchHit();
+        hit.setBook(fromModelToRest.apply(h.getBook()));
+        hit.setScore(h.getScore());
+        return hit;
+    };
+
+    public static Function<Suggestion, com.example.bookstore.rest.Suggestion> fromSuggestionToRest = (Suggestion s)-> {
+        com.example.bookstore.rest.Suggestion suggestion = new com.example.bookstore.rest.Suggestion();
+        suggestion.setText(s.getText());
+        suggestion.setType(SuggestionType.fromValue(s.getType().name()));
+        suggestion.setCount(s.getCount());
+        return suggestion;
+    };
 
+    public static Function<BookFacets.Count, FacetCount> fromFacetCountToRest = (BookFacets.Count c)-> {
+        FacetCount count = new FacetCount();
+        count.setValue(c.getValue());
+        count.setCount(c.getCount());
+        return count;
+    };
 
+    public static Function<BookFacets, FacetResponse> fromBookFacetsToRest = (BookFacets f)-> {
+        FacetResponse response = new FacetResponse();
+        response.setTotal(f.getTotal());
+        response.setCategories(f.getCategories().stream().map(fromFacetCountToRest).collect(Collectors.toList()));
+        response.setAuthors(f.getAuthors().stream().map(fromFacetCountToRest).collect(Collectors.toList()));
+        return response;
+    };
+}
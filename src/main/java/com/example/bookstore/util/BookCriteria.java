@@ -0,0 +1,83 @@
+package com.example.bookstore.util;
+
+import com.example.bookstore.rest.Category;
+import org.springframework.data.relational.core.query.Criteria;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Criteria of the reactive repository for a search criteria, the counterpart of {@link BookSpecification}.
+ *
+ * @author chetanbhatt
+ */
+public final class BookCriteria {
+
+    private BookCriteria() {
+    }
+
+    public static Criteria of(final SpecSearchCriteria criteria) {
+        if (BookSpecification.CATEGORY.equals(criteria.getKey())) {
+            // no category matching is run as id is null, which no book matches as the id is the primary key
+            List<Category> categories = Categories.matching(criteria);
+            return categories.isEmpty()
+                    ? Criteria.where(BookSpecification.ID).isNull()
+                    : Criteria.where(BookSpecification.CATEGORY).in(Categories.codes(categories));
+        }
+        if (BookSpecification.ID.equals(criteria.getKey())) {
+            return idCriteria(criteria);
+        }
+        Criteria.CriteriaStep column = Criteria.where(criteria.getKey());
+        Object value = criteria.getValue();
+        switch (criteria.getOperation()) {
+            case EQUALITY:
+                return column.is(value);
+            case NEGATION:
+                return column.not(value);
+            case GREATER_THAN:
+                return column.greaterThan(value.toString());
+            case GREATER_THAN_OR_EQUAL:
+                return column.greaterThanOrEquals(value.toString());
+            case LESS_THAN:
+                return column.lessThan(value.toString());
+            case LESS_THAN_OR_EQUAL:
+                return column.lessThanOrEquals(value.toString());
+            case LIKE:
+                return column.like(value.toString());
+            case STARTS_WITH:
+                return column.like(BookSpecification.escapeLike(value.toString()) + "%");
+            case ENDS_WITH:
+                return column.like("%" + BookSpecification.escapeLike(value.toString()));
+            case CONTAINS:
+                return column.like("%" + BookSpecification.escapeLike(value.toString()) + "%");
+            case IN:
+                return column.in((Collection<?>) value);
+            case NOT_IN:
+                return column.notIn((Collection<?>) value);
+            default:
+                throw new IllegalArgumentException("Unsupported operation " + criteria.getOperation());
+        }
+    }
+
+    /**
+     * Ids are bound as UUIDs, a malformed id being the id of no book. As the id is never null, no id matching is run as
+     * id is null and any id as id is not null.
+     */
+    private static Criteria idCriteria(final SpecSearchCriteria criteria) {
+        List<UUID> ids = BookSpecification.ids(criteria);
+        Criteria.CriteriaStep column = Criteria.where(BookSpecification.ID);
+        switch (criteria.getOperation()) {
+            case EQUALITY:
+                return ids.isEmpty() ? column.isNull() : column.is(ids.get(0));
+            case NEGATION:
+                return ids.isEmpty() ? column.isNotNull() : column.not(ids.get(0));
+            case IN:
+                return ids.isEmpty() ? column.isNull() : column.in(ids);
+            case NOT_IN:
+                return ids.isEmpty() ? column.isNotNull() : column.notIn(ids);
+            default:
+                throw new IllegalArgumentException("Unsupported operation " + criteria.getOperation() + " on the ids");
+        }
+    }
+}
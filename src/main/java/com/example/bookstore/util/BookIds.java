@@ -0,0 +1,66 @@
+package com.example.bookstore.util;
+
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates and parses the ids of the books.
+ * <p>
+ * Ids are time ordered UUIDs of version 7: the 48 high bits hold the unix time in milliseconds and the next 12 bits a
+ * sequence within the millisecond, followed by 62 random bits. Ids generated by the application are hence strictly
+ * increasing, and new books are appended at the end of the primary key index rather than at random places of it.
+ * Externally an id is the usual 36 characters string of the UUID.
+ *
+ * @author chetanbhatt
+ */
+public final class BookIds {
+
+    private static final Random RANDOM = new SecureRandom();
+
+    /**
+     * The unix time in milliseconds shifted by 12 bits, plus the sequence within the millisecond.
+     */
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private BookIds() {
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long timeAndSequence = LAST.updateAndGet(last -> Math.max(last + 1, now));
+        long mostSigBits = (timeAndSequence >>> 12) << 16 | 0x7000L | timeAndSequence & 0xFFFL;
+        long leastSigBits = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * Parses the external representation of an id.
+     *
+     * @param id
+     * @return the id, or null if it is not a UUID, in which case no book has it
+     */
+    public static UUID parse(String id) {
+        if (id == null || id.length() != 36) {
+            return null;
+        }
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the canonical representation of an id, lowercase, as the ids of the books are handed out and cached.
+     * UUIDs are parsed regardless of case, hence an id may be spelled differently and still be the id of a book.
+     *
+     * @param id
+     * @return the canonical id, or the id as is if it is not a UUID
+     */
+    public static String canonical(String id) {
+        UUID uuid = parse(id);
+        return uuid == null ? id : uuid.toString();
+    }
+}
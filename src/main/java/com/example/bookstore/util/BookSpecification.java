@@ -1,12 +1,20 @@
 package com.example.bookstore.util;
 
 import com.example.bookstore.model.Book;
+import com.example.bookstore.rest.Category;
 import org.springframework.data.jpa.domain.Specification;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Specification class for the Book Entity.
@@ -14,6 +22,18 @@ import javax.persistence.criteria.Root;
  * @author chetanbhatt
  */
 public class BookSpecification implements Specification<Book> {
+    public static final char LIKE_ESCAPE = '\\';
+
+    static final String CATEGORY = "category";
+
+    static final String ID = "id";
+
+    /**
+     * Operations supported on the ids, which are UUIDs and hence neither ordered nor matched by pattern.
+     */
+    static final Set<SearchOperation> ID_OPERATIONS = EnumSet.of(SearchOperation.EQUALITY, SearchOperation.NEGATION,
+            SearchOperation.IN, SearchOperation.NOT_IN);
+
     private SpecSearchCriteria criteria;
 
     public BookSpecification(final SpecSearchCriteria criteria) {
@@ -27,11 +47,94 @@ public class BookSpecification implements Specification<Book> {
 
     @Override
     public Predicate toPredicate(final Root<Book> root, final CriteriaQuery<?> query, final CriteriaBuilder builder) {
+        if (CATEGORY.equals(criteria.getKey())) {
+            // categories are stored as codes, the criteria is evaluated on the values of the categories instead
+            List<Category> categories = Categories.matching(criteria);
+            return categories.isEmpty() ? builder.disjunction() : root.get(CATEGORY).in(categories);
+        }
+        if (ID.equals(criteria.getKey())) {
+            return idPredicate(root, builder);
+        }
+        Path<String> path = root.get(criteria.getKey());
+        Object value = criteria.getValue();
         switch (criteria.getOperation()) {
             case EQUALITY:
-                return builder.equal(root.get(criteria.getKey()), criteria.getValue());
+                return builder.equal(path, value);
+            case NEGATION:
+                return builder.notEqual(path, value);
+            case GREATER_THAN:
+                return builder.greaterThan(path, value.toString());
+            case GREATER_THAN_OR_EQUAL:
+                return builder.greaterThanOrEqualTo(path, value.toString());
+            case LESS_THAN:
+                return builder.lessThan(path, value.toString());
+            case LESS_THAN_OR_EQUAL:
+                return builder.lessThanOrEqualTo(path, value.toString());
+            case LIKE:
+                return builder.like(path, value.toString(), LIKE_ESCAPE);
+            case STARTS_WITH:
+                return builder.like(path, escapeLike(value.toString()) + "%", LIKE_ESCAPE);
+            case ENDS_WITH:
+                return builder.like(path, "%" + escapeLike(value.toString()), LIKE_ESCAPE);
+            case CONTAINS:
+                return builder.like(path, "%" + escapeLike(value.toString()) + "%", LIKE_ESCAPE);
+            case IN:
+                return path.in((Collection<?>) value);
+            case NOT_IN:
+                return builder.not(path.in((Collection<?>) value));
             default:
                 return null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Ids are bound as UUIDs, a malformed id being the id of no book.
+     */
+    private Predicate idPredicate(final Root<Book> root, final CriteriaBuilder builder) {
+        List<UUID> ids = ids(criteria);
+        Path<UUID> path = root.get(ID);
+        switch (criteria.getOperation()) {
+            case EQUALITY:
+                return ids.isEmpty() ? builder.disjunction() : builder.equal(path, ids.get(0));
+            case NEGATION:
+                return ids.isEmpty() ? builder.conjunction() : builder.notEqual(path, ids.get(0));
+            case IN:
+                return ids.isEmpty() ? builder.disjunction() : path.in(ids);
+            case NOT_IN:
+                return ids.isEmpty() ? builder.conjunction() : builder.not(path.in(ids));
+            default:
+                throw new IllegalArgumentException("Unsupported operation " + criteria.getOperation() + " on the ids");
+        }
+    }
+
+    /**
+     * @return the well formed ids of the value of the criteria
+     */
+    static List<UUID> ids(final SpecSearchCriteria criteria) {
+        Collection<?> values = criteria.getValue() instanceof Collection
+                ? (Collection<?>) criteria.getValue() : List.of(criteria.getValue());
+        List<UUID> ids = new ArrayList<>(values.size());
+        for (Object value : values) {
+            UUID id = BookIds.parse(String.valueOf(value));
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Escapes the LIKE wildcards of the value so that it is matched literally.
+     */
+    public static String escapeLike(final String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
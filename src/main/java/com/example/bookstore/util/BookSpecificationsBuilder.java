@@ -31,7 +31,10 @@ public class BookSpecificationsBuilder {
         if (params.size() == 0)
             return null;
 
-        Specification<Book> result = new BookSpecification(params.get(0));
-        return Specification.where(result);
+        Specification<Book> result = Specification.where(new BookSpecification(params.get(0)));
+        for (int i = 1; i < params.size(); i++) {
+            result = result.and(new BookSpecification(params.get(i)));
+        }
+        return result;
     }
 }
@@ -0,0 +1,107 @@
+package com.example.bookstore.util;
+
+import com.example.bookstore.rest.Category;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Lookup tables of the categories, precomputed in both directions.
+ * <p>
+ * Categories are stored as one byte codes. The codes are part of the schema, see V4__category_code.sql, hence a
+ * category keeps its code once assigned and a new category must be given the next unused one.
+ *
+ * @author chetanbhatt
+ */
+public final class Categories {
+
+    private static final byte[] CODES = new byte[Category.values().length];
+
+    private static final Category[] BY_CODE = new Category[Byte.MAX_VALUE + 1];
+
+    private static final Map<String, Category> BY_VALUE = new HashMap<>();
+
+    private static final Map<String, Category> BY_NAME = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        register(Category.TECHNICAL, 1);
+        register(Category.LITERATURE, 2);
+        register(Category.HUMOUR, 3);
+        register(Category.POETRY, 4);
+        register(Category.SCIENCE_FICTION, 5);
+        for (Category category : Category.values()) {
+            if (CODES[category.ordinal()] == 0) {
+                throw new IllegalStateException("Category " + category + " has no code");
+            }
+        }
+    }
+
+    private Categories() {
+    }
+
+    private static void register(Category category, int code) {
+        CODES[category.ordinal()] = (byte) code;
+        BY_CODE[code] = category;
+        BY_VALUE.put(category.getValue(), category);
+        BY_NAME.put(category.name(), category);
+        BY_NAME.put(category.getValue(), category);
+    }
+
+    public static byte code(Category category) {
+        return CODES[category.ordinal()];
+    }
+
+    /**
+     * @throws IllegalArgumentException if no category has the code
+     */
+    public static Category fromCode(byte code) {
+        Category category = code > 0 ? BY_CODE[code] : null;
+        if (category == null) {
+            throw new IllegalArgumentException("Unexpected category code " + code);
+        }
+        return category;
+    }
+
+    /**
+     * @return the category of the value, or null if there is none
+     */
+    public static Category fromValue(String value) {
+        return value == null ? null : BY_VALUE.get(value);
+    }
+
+    /**
+     * Looks up a category by its name or its value, ignoring the case.
+     *
+     * @return the category, or null if there is none
+     */
+    public static Category fromName(String name) {
+        return name == null ? null : BY_NAME.get(name);
+    }
+
+    /**
+     * Evaluates the criteria on the category values, so that a filter on the category is run as an IN of the codes of
+     * the matching categories, whatever the operation.
+     *
+     * @return the categories matching the criteria
+     */
+    public static List<Category> matching(SpecSearchCriteria criteria) {
+        List<Category> categories = new ArrayList<>();
+        for (Category category : Category.values()) {
+            if (criteria.matches(category.getValue())) {
+                categories.add(category);
+            }
+        }
+        return categories;
+    }
+
+    public static List<Byte> codes(List<Category> categories) {
+        List<Byte> codes = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            codes.add(code(category));
+        }
+        return codes;
+    }
+}
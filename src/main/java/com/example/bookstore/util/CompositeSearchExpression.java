@@ -0,0 +1,86 @@
+package com.example.bookstore.util;
+
+import com.example.bookstore.model.Book;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.relational.core.query.Criteria;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Search expressions combined with AND or OR.
+ *
+ * @author chetanbhatt
+ */
+public class CompositeSearchExpression implements SearchExpression {
+
+    public enum Operator {
+        AND,
+        OR
+    }
+
+    private final Operator operator;
+
+    private final List<SearchExpression> operands;
+
+    public CompositeSearchExpression(final Operator operator, final List<SearchExpression> operands) {
+        this.operator = operator;
+        this.operands = List.copyOf(operands);
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public List<SearchExpression> getOperands() {
+        return operands;
+    }
+
+    @Override
+    public Specification<Book> toSpecification() {
+        return combine(SearchExpression::toSpecification);
+    }
+
+    /**
+     * The operands take their values in order, as they are collected by {@link SearchQueryParser#shape(String, List)}.
+     */
+    @Override
+    public Specification<Book> toSpecification(final Iterator<?> values) {
+        return combine(operand -> operand.toSpecification(values));
+    }
+
+    private Specification<Book> combine(final Function<SearchExpression, Specification<Book>> toSpecification) {
+        Specification<Book> result = Specification.where(toSpecification.apply(operands.get(0)));
+        for (int i = 1; i < operands.size(); i++) {
+            Specification<Book> operand = toSpecification.apply(operands.get(i));
+            result = operator == Operator.AND ? result.and(operand) : result.or(operand);
+        }
+        return result;
+    }
+
+    /**
+     * Each operand is added as a group, so that nested expressions keep their own operator.
+     */
+    @Override
+    public Criteria toCriteria() {
+        Criteria result = Criteria.empty().and(operands.get(0).toCriteria());
+        for (int i = 1; i < operands.size(); i++) {
+            Criteria operand = operands.get(i).toCriteria();
+            result = operator == Operator.AND ? result.and(operand) : result.or(operand);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("(");
+        for (int i = 0; i < operands.size(); i++) {
+            if (i > 0) {
+                builder.append(' ').append(operator).append(' ');
+            }
+            builder.append(operands.get(i));
+        }
+        return builder.append(')').toString();
+    }
+}
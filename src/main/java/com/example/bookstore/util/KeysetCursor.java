@@ -0,0 +1,75 @@
+package com.example.bookstore.util;
+
+import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.exception.ErrorCode;
+import com.example.bookstore.model.BookView;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Continuation token for keyset (seek) pagination of books.
+ * Books are ordered by (name, id), the cursor holds the sort key and id of the last book of a slice
+ * and is exposed to clients as an opaque url safe string.
+ *
+ * @author chetanbhatt
+ */
+public final class KeysetCursor {
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final String sortKey;
+
+    private final String id;
+
+    public KeysetCursor(final String sortKey, final String id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    public static KeysetCursor after(final BookView book) {
+        return new KeysetCursor(book.getName(), book.getId());
+    }
+
+    /**
+     * Decodes the continuation token.
+     * An empty token denotes the start of the result set, hence null is returned for it.
+     *
+     * @param token
+     * @return KeysetCursor or null
+     * @throws BookStoreException if the token is malformed
+     */
+    public static KeysetCursor decode(final String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Missing separator");
+            }
+            String id = decoded.substring(separator + 1);
+            if (BookIds.parse(id) == null) {
+                throw new IllegalArgumentException("Invalid id");
+            }
+            return new KeysetCursor(decoded.substring(0, separator), id);
+        } catch (IllegalArgumentException e) {
+            throw new BookStoreException(ErrorCode.VALIDATION_ERROR, Map.of("cursor", token), "Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.bookstore.util;
+
+import com.example.bookstore.model.Book;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.relational.core.query.Criteria;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Parsed search query, either a single criteria or criteria combined with AND/OR.
+ *
+ * @author chetanbhatt
+ */
+public interface SearchExpression {
+
+    Specification<Book> toSpecification();
+
+    /**
+     * Gets the Specification of the expression of the same shape, see {@link SearchQueryParser#shape(String, List)},
+     * whose values are taken, in order, from the iterator.
+     */
+    Specification<Book> toSpecification(Iterator<?> values);
+
+    /**
+     * Gets the Criteria of the reactive repository, which runs the same query as the Specification.
+     */
+    Criteria toCriteria();
+
+}
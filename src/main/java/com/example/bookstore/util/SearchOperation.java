@@ -2,19 +2,45 @@ package com.example.bookstore.util;
 
 /**
  * Search operations for searching books.
- * Currently, only Equality operation is supported.
  *
  * @author chetanbhatt
  */
 public enum SearchOperation {
-    EQUALITY;
+    EQUALITY,
+    NEGATION,
+    GREATER_THAN,
+    GREATER_THAN_OR_EQUAL,
+    LESS_THAN,
+    LESS_THAN_OR_EQUAL,
+    LIKE,
+    STARTS_WITH,
+    ENDS_WITH,
+    CONTAINS,
+    IN,
+    NOT_IN;
+
     public static final String SIMPLE_OPERATION_SET = ":";
+
+    public static final String AND_OPERATOR = "AND";
+
+    public static final String OR_OPERATOR = "OR";
+
+    public static final String ZERO_OR_MORE = "*";
+
     public static SearchOperation getSimpleOperation(final char input) {
         switch (input) {
             case ':':
                 return EQUALITY;
+            case '!':
+                return NEGATION;
+            case '>':
+                return GREATER_THAN;
+            case '<':
+                return LESS_THAN;
+            case '~':
+                return LIKE;
             default:
                 return null;
         }
     }
-}
\ No newline at end of file
+}
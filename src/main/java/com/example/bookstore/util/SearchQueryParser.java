@@ -0,0 +1,357 @@
+package com.example.bookstore.util;
+
+import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.exception.ErrorCode;
+import com.example.bookstore.model.Book;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Parser for the search query language of books.
+ * <pre>
+ * query     := or
+ * or        := and ( OR and )*
+ * and       := primary ( AND primary )*
+ * primary   := '(' or ')' | criteria
+ * criteria  := key operator value
+ * operator  := ':' | '!:' | '>' | '>=' | '&lt;' | '&lt;=' | '~'
+ * value     := '"' literal '"' | '[' item ( ',' item )* ']' | text
+ * </pre>
+ * Keys must be fields of the Book. The keywords AND/OR are case sensitive, so that titles like
+ * "Pride and Prejudice" can be searched without quotes. An unquoted value ends at the next keyword or at the
+ * parenthesis closing its group. With ':' a leading and/or trailing '*' searches by suffix, prefix or substring,
+ * with '~' '*' is a wildcard anywhere in the value, and a list of values searches with IN (or NOT IN with '!:').
+ * <p>
+ * Example - name:Learn* AND (author:"Chetan Bhatt" OR category:[Technical,Poetry])
+ *
+ * @author chetanbhatt
+ */
+public final class SearchQueryParser {
+
+    public static final Set<String> KEYS = Arrays.stream(Book.class.getDeclaredFields())
+            .filter(field -> !Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers()))
+            .map(Field::getName)
+            .collect(Collectors.toUnmodifiableSet());
+
+    private final String query;
+
+    private int position;
+
+    private SearchQueryParser(final String query) {
+        this.query = query;
+    }
+
+    /**
+     * Parses the query.
+     *
+     * @param query
+     * @return SearchExpression
+     * @throws BookStoreException if the query is malformed or searches by an unknown key
+     */
+    public static SearchExpression parse(final String query) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new BookStoreException(ErrorCode.VALIDATION_ERROR, null, "Invalid query string");
+        }
+        SearchQueryParser parser = new SearchQueryParser(query);
+        SearchExpression expression = parser.parseOr(0);
+        parser.skipWhitespace();
+        if (!parser.atEnd()) {
+            throw parser.error("Unexpected character '" + parser.current() + "'");
+        }
+        return expression;
+    }
+
+    /**
+     * Scans the query into its shape, the query with the values of its criteria replaced by '?', and collects the
+     * values in order, as {@link #parse(String)} would bind them, without building the expression. The query is
+     * validated as it is scanned, hence queries of the same shape parse into expressions only differing by their values.
+     * Example - name:Learn* AND (author:"Chetan Bhatt" OR category:[Technical,Poetry]) is of shape
+     * name STARTS_WITH ? AND (author EQUALITY ? OR category IN ?)
+     *
+     * @param query
+     * @param values the values of the criteria, in order
+     * @return the shape of the query
+     * @throws BookStoreException if the query is malformed or searches by an unknown key
+     */
+    public static String shape(final String query, final List<Object> values) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new BookStoreException(ErrorCode.VALIDATION_ERROR, null, "Invalid query string");
+        }
+        SearchQueryParser parser = new SearchQueryParser(query);
+        StringBuilder shape = new StringBuilder(query.length());
+        parser.shapeOr(0, shape, values);
+        parser.skipWhitespace();
+        if (!parser.atEnd()) {
+            throw parser.error("Unexpected character '" + parser.current() + "'");
+        }
+        return shape.toString();
+    }
+
+    private void shapeOr(final int depth, final StringBuilder shape, final List<Object> values) {
+        shapeAnd(depth, shape, values);
+        while (acceptKeyword(SearchOperation.OR_OPERATOR)) {
+            shape.append(' ').append(SearchOperation.OR_OPERATOR).append(' ');
+            shapeAnd(depth, shape, values);
+        }
+    }
+
+    private void shapeAnd(final int depth, final StringBuilder shape, final List<Object> values) {
+        shapePrimary(depth, shape, values);
+        while (acceptKeyword(SearchOperation.AND_OPERATOR)) {
+            shape.append(' ').append(SearchOperation.AND_OPERATOR).append(' ');
+            shapePrimary(depth, shape, values);
+        }
+    }
+
+    private void shapePrimary(final int depth, final StringBuilder shape, final List<Object> values) {
+        skipWhitespace();
+        if (!atEnd() && current() == '(') {
+            position++;
+            shape.append('(');
+            shapeOr(depth + 1, shape, values);
+            skipWhitespace();
+            if (atEnd() || current() != ')') {
+                throw error("Expected ')'");
+            }
+            position++;
+            shape.append(')');
+            return;
+        }
+        SpecSearchCriteria criteria = parseCriteria(depth);
+        shape.append(criteria.getKey()).append(' ').append(criteria.getOperation()).append(" ?");
+        values.add(criteria.getValue());
+    }
+
+    private SearchExpression parseOr(final int depth) {
+        List<SearchExpression> operands = new ArrayList<>();
+        operands.add(parseAnd(depth));
+        while (acceptKeyword(SearchOperation.OR_OPERATOR)) {
+            operands.add(parseAnd(depth));
+        }
+        return operands.size() == 1 ? operands.get(0) : new CompositeSearchExpression(CompositeSearchExpression.Operator.OR, operands);
+    }
+
+    private SearchExpression parseAnd(final int depth) {
+        List<SearchExpression> operands = new ArrayList<>();
+        operands.add(parsePrimary(depth));
+        while (acceptKeyword(SearchOperation.AND_OPERATOR)) {
+            operands.add(parsePrimary(depth));
+        }
+        return operands.size() == 1 ? operands.get(0) : new CompositeSearchExpression(CompositeSearchExpression.Operator.AND, operands);
+    }
+
+    private SearchExpression parsePrimary(final int depth) {
+        skipWhitespace();
+        if (!atEnd() && current() == '(') {
+            position++;
+            SearchExpression expression = parseOr(depth + 1);
+            skipWhitespace();
+            if (atEnd() || current() != ')') {
+                throw error("Expected ')'");
+            }
+            position++;
+            return expression;
+        }
+        return parseCriteria(depth);
+    }
+
+    private SpecSearchCriteria parseCriteria(final int depth) {
+        SpecSearchCriteria criteria = parseCriteriaOf(depth);
+        if (BookSpecification.ID.equals(criteria.getKey()) && !BookSpecification.ID_OPERATIONS.contains(criteria.getOperation())) {
+            throw new BookStoreException(ErrorCode.VALIDATION_ERROR, Map.of("key", criteria.getKey()),
+                    "Ids are only searched with ':' and '!:', by value or by a list of values");
+        }
+        return criteria;
+    }
+
+    private SpecSearchCriteria parseCriteriaOf(final int depth) {
+        int start = position;
+        while (!atEnd() && (Character.isLetterOrDigit(current()) || current() == '_')) {
+            position++;
+        }
+        String key = query.substring(start, position);
+        if (key.isEmpty()) {
+            throw error("Expected a search key");
+        }
+        if (!KEYS.contains(key)) {
+            throw new BookStoreException(ErrorCode.VALIDATION_ERROR, Map.of("key", key, "keys", KEYS),
+                    String.format("Invalid search key %s", key));
+        }
+        skipWhitespace();
+        SearchOperation operation = parseOperation();
+        skipWhitespace();
+        if (atEnd()) {
+            throw error("Expected a value");
+        }
+        if (current() == '[') {
+            if (operation != SearchOperation.EQUALITY && operation != SearchOperation.NEGATION) {
+                throw error("A list of values is only supported with ':' and '!:'");
+            }
+            List<String> values = parseList();
+            return new SpecSearchCriteria(key, operation == SearchOperation.EQUALITY ? SearchOperation.IN : SearchOperation.NOT_IN, values);
+        }
+        if (current() == '"') {
+            String value = parseQuoted();
+            return operation == SearchOperation.LIKE
+                    ? new SpecSearchCriteria(key, operation, BookSpecification.escapeLike(value))
+                    : new SpecSearchCriteria(key, operation, value);
+        }
+        return criteria(key, operation, parseText(depth));
+    }
+
+    private SearchOperation parseOperation() {
+        if (query.startsWith("!:", position)) {
+            position += 2;
+            return SearchOperation.NEGATION;
+        }
+        if (query.startsWith(">=", position)) {
+            position += 2;
+            return SearchOperation.GREATER_THAN_OR_EQUAL;
+        }
+        if (query.startsWith("<=", position)) {
+            position += 2;
+            return SearchOperation.LESS_THAN_OR_EQUAL;
+        }
+        SearchOperation operation = atEnd() || current() == '!' ? null : SearchOperation.getSimpleOperation(current());
+        if (operation == null) {
+            throw error("Expected one of the operators : !: > >= < <= ~");
+        }
+        position++;
+        return operation;
+    }
+
+    private static SpecSearchCriteria criteria(final String key, final SearchOperation operation, final String value) {
+        if (operation == SearchOperation.LIKE) {
+            return new SpecSearchCriteria(key, operation,
+                    BookSpecification.escapeLike(value).replace(SearchOperation.ZERO_OR_MORE, "%"));
+        }
+        if (operation != SearchOperation.EQUALITY || value.length() < 2) {
+            return new SpecSearchCriteria(key, operation, value);
+        }
+        boolean leading = value.startsWith(SearchOperation.ZERO_OR_MORE);
+        boolean trailing = value.endsWith(SearchOperation.ZERO_OR_MORE);
+        if (leading && trailing && value.length() > 2) {
+            return new SpecSearchCriteria(key, SearchOperation.CONTAINS, value.substring(1, value.length() - 1));
+        }
+        if (leading && !trailing) {
+            return new SpecSearchCriteria(key, SearchOperation.ENDS_WITH, value.substring(1));
+        }
+        if (trailing && !leading) {
+            return new SpecSearchCriteria(key, SearchOperation.STARTS_WITH, value.substring(0, value.length() - 1));
+        }
+        return new SpecSearchCriteria(key, operation, value);
+    }
+
+    private String parseQuoted() {
+        int start = ++position;
+        while (!atEnd() && current() != '"') {
+            position++;
+        }
+        if (atEnd()) {
+            throw error("Expected closing '\"'");
+        }
+        return query.substring(start, position++);
+    }
+
+    private String parseText(final int depth) {
+        int start = position;
+        while (!atEnd() && !(depth > 0 && current() == ')')
+                && !(Character.isWhitespace(current()) && keywordAhead())) {
+            position++;
+        }
+        String value = query.substring(start, position).trim();
+        if (value.isEmpty()) {
+            throw error("Expected a value");
+        }
+        return value;
+    }
+
+    private List<String> parseList() {
+        position++;
+        List<String> values = new ArrayList<>();
+        while (true) {
+            skipWhitespace();
+            if (atEnd()) {
+                throw error("Expected ']'");
+            }
+            if (current() == '"') {
+                values.add(parseQuoted());
+            } else {
+                int start = position;
+                while (!atEnd() && current() != ',' && current() != ']') {
+                    position++;
+                }
+                String value = query.substring(start, position).trim();
+                if (value.isEmpty()) {
+                    throw error("Expected a value");
+                }
+                values.add(value);
+            }
+            skipWhitespace();
+            if (atEnd()) {
+                throw error("Expected ']'");
+            }
+            if (current() == ']') {
+                position++;
+                return values;
+            }
+            if (current() != ',') {
+                throw error("Expected ',' or ']'");
+            }
+            position++;
+        }
+    }
+
+    private boolean acceptKeyword(final String keyword) {
+        int start = position;
+        skipWhitespace();
+        if (isKeyword(keyword)) {
+            position += keyword.length();
+            return true;
+        }
+        position = start;
+        return false;
+    }
+
+    private boolean keywordAhead() {
+        int start = position;
+        skipWhitespace();
+        boolean keyword = isKeyword(SearchOperation.AND_OPERATOR) || isKeyword(SearchOperation.OR_OPERATOR);
+        position = start;
+        return keyword;
+    }
+
+    private boolean isKeyword(final String keyword) {
+        if (!query.startsWith(keyword, position)) {
+            return false;
+        }
+        int end = position + keyword.length();
+        return end < query.length() && (Character.isWhitespace(query.charAt(end)) || query.charAt(end) == '(');
+    }
+
+    private void skipWhitespace() {
+        while (!atEnd() && Character.isWhitespace(current())) {
+            position++;
+        }
+    }
+
+    private boolean atEnd() {
+        return position >= query.length();
+    }
+
+    private char current() {
+        return query.charAt(position);
+    }
+
+    private BookStoreException error(final String message) {
+        return new BookStoreException(ErrorCode.VALIDATION_ERROR, Map.of("query", query, "position", position),
+                String.format("Invalid query string, %s at position %d", message, position));
+    }
+}
@@ -1,11 +1,19 @@
 package com.example.bookstore.util;
 
+import com.example.bookstore.model.Book;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.relational.core.query.Criteria;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.regex.Pattern;
+
 /**
  * SpecSearch Criteria for searching books
  *
  * @author chetanbhatt
  */
-public class SpecSearchCriteria {
+public class SpecSearchCriteria implements SearchExpression {
     private String key;
     private SearchOperation operation;
     private Object value;
@@ -28,4 +36,90 @@ public class SpecSearchCriteria {
         return value;
     }
 
-}
\ No newline at end of file
+    @Override
+    public Specification<Book> toSpecification() {
+        return new BookSpecification(this);
+    }
+
+    @Override
+    public Specification<Book> toSpecification(final Iterator<?> values) {
+        return new BookSpecification(new SpecSearchCriteria(key, operation, values.next()));
+    }
+
+    @Override
+    public Criteria toCriteria() {
+        return BookCriteria.of(this);
+    }
+
+    /**
+     * Evaluates the criteria on a value of its field, as the db would.
+     *
+     * @param fieldValue
+     * @return true if the value matches
+     */
+    public boolean matches(final String fieldValue) {
+        switch (operation) {
+            case EQUALITY:
+                return fieldValue.equals(value.toString());
+            case NEGATION:
+                return !fieldValue.equals(value.toString());
+            case GREATER_THAN:
+                return fieldValue.compareTo(value.toString()) > 0;
+            case GREATER_THAN_OR_EQUAL:
+                return fieldValue.compareTo(value.toString()) >= 0;
+            case LESS_THAN:
+                return fieldValue.compareTo(value.toString()) < 0;
+            case LESS_THAN_OR_EQUAL:
+                return fieldValue.compareTo(value.toString()) <= 0;
+            case LIKE:
+                return likePattern(value.toString()).matcher(fieldValue).matches();
+            case STARTS_WITH:
+                return fieldValue.startsWith(value.toString());
+            case ENDS_WITH:
+                return fieldValue.endsWith(value.toString());
+            case CONTAINS:
+                return fieldValue.contains(value.toString());
+            case IN:
+                return contains((Collection<?>) value, fieldValue);
+            case NOT_IN:
+                return !contains((Collection<?>) value, fieldValue);
+            default:
+                throw new IllegalArgumentException("Unsupported operation " + operation);
+        }
+    }
+
+    private static boolean contains(final Collection<?> values, final String fieldValue) {
+        for (Object value : values) {
+            if (fieldValue.equals(String.valueOf(value))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Translates a LIKE pattern, escaped with {@link BookSpecification#LIKE_ESCAPE}, into a regular expression.
+     */
+    private static Pattern likePattern(final String like) {
+        StringBuilder regex = new StringBuilder(like.length() + 8);
+        for (int i = 0; i < like.length(); i++) {
+            char c = like.charAt(i);
+            if (c == BookSpecification.LIKE_ESCAPE && i + 1 < like.length()) {
+                regex.append(Pattern.quote(String.valueOf(like.charAt(++i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    @Override
+    public String toString() {
+        return key + " " + operation + " " + value;
+    }
+
+}
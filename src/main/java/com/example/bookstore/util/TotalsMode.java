@@ -0,0 +1,36 @@
+package com.example.bookstore.util;
+
+import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.exception.ErrorCode;
+
+import java.util.Map;
+
+/**
+ * How the totals of a paged response of books are computed.
+ * EXACT runs a count query, APPROXIMATE reads maintained counters or cached counts and NONE skips the totals,
+ * only reporting whether a next page exists.
+ *
+ * @author chetanbhatt
+ */
+public enum TotalsMode {
+    EXACT, APPROXIMATE, NONE;
+
+    /**
+     * Gets the mode by its name, ignoring case.
+     *
+     * @param value
+     * @return TotalsMode, EXACT when the value is null
+     * @throws BookStoreException if the value is not a mode
+     */
+    public static TotalsMode fromValue(final String value) {
+        if (value == null) {
+            return EXACT;
+        }
+        for (TotalsMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new BookStoreException(ErrorCode.VALIDATION_ERROR, Map.of("totals", value), "Invalid totals mode");
+    }
+}
@@ -0,0 +1,10 @@
+-- Schema of the books as it was generated by Hibernate before the migrations
+CREATE TABLE book (
+    id VARCHAR(255) NOT NULL PRIMARY KEY,
+    name VARCHAR(255),
+    author VARCHAR(255),
+    category VARCHAR(255),
+    CONSTRAINT uk_book_name_author UNIQUE (name, author)
+);
+CREATE INDEX author_index ON book (author);
+CREATE INDEX name_index ON book (name);
@@ -0,0 +1,10 @@
+-- Lookups by author, and by author and category. Name and id follow, so that the listing rows are read from the index.
+CREATE INDEX author_category_index ON book (author, category, name, id);
+-- Lookups by category, in id order
+CREATE INDEX category_id_index ON book (category, id);
+-- Keyset pagination, which orders by (name, id)
+CREATE INDEX name_id_index ON book (name, id);
+
+-- Both are prefixes of the indexes above
+DROP INDEX author_index;
+DROP INDEX name_index;
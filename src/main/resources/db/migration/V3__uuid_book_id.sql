@@ -0,0 +1,3 @@
+-- Ids are stored as 16 bytes UUIDs instead of 36 characters strings, which shrinks the primary key and every index
+-- holding the id. Existing ids are converted, new ones are time ordered, see BookIds.
+ALTER TABLE book ALTER COLUMN id SET DATA TYPE UUID;
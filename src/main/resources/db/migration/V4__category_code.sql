@@ -0,0 +1,19 @@
+-- Categories are stored as one byte codes instead of their names, see Categories for the codes.
+-- The rows and the indexes on the category shrink, and a category is compared as a single byte.
+ALTER TABLE book ADD COLUMN category_code TINYINT;
+UPDATE book SET category_code = CASE category
+    WHEN 'Technical' THEN 1
+    WHEN 'Literature' THEN 2
+    WHEN 'Humour' THEN 3
+    WHEN 'Poetry' THEN 4
+    WHEN 'Science Fiction' THEN 5
+    -- an unmapped category fails the conversion, hence the migration, rather than being lost
+    ELSE CAST('Unmapped category ' || category AS TINYINT)
+END;
+
+DROP INDEX author_category_index;
+DROP INDEX category_id_index;
+ALTER TABLE book DROP COLUMN category;
+ALTER TABLE book ALTER COLUMN category_code RENAME TO category;
+CREATE INDEX author_category_index ON book (author, category, name, id);
+CREATE INDEX category_id_index ON book (category, id);
@@ -0,0 +1,11 @@
+-- Schema of the reactive profile, kept in line with the migrations in db/migration
+CREATE TABLE IF NOT EXISTS book (
+    id UUID NOT NULL PRIMARY KEY,
+    name VARCHAR(255),
+    author VARCHAR(255),
+    category TINYINT,
+    CONSTRAINT uk_book_name_author UNIQUE (name, author)
+);
+CREATE INDEX IF NOT EXISTS author_category_index ON book (author, category, name, id);
+CREATE INDEX IF NOT EXISTS category_id_index ON book (category, id);
+CREATE INDEX IF NOT EXISTS name_id_index ON book (name, id);
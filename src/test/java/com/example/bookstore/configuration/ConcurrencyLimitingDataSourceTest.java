@@ -0,0 +1,98 @@
+package com.example.bookstore.configuration;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ConcurrencyLimitingDataSourceTest {
+
+    private DataSource target;
+
+    private Connection targetConnection;
+
+    private ConcurrencyLimitingDataSource dataSource;
+
+    @Before
+    public void setup() throws SQLException {
+        target = mock(DataSource.class);
+        targetConnection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(targetConnection);
+        dataSource = new ConcurrencyLimitingDataSource(target, 2, 50);
+    }
+
+    @Test
+    public void testConnectionsAreLimited() throws Exception {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertEquals(0, dataSource.getAvailablePermits());
+        try {
+            dataSource.getConnection();
+            fail("Expected the connection to time out");
+        } catch (SQLTransientConnectionException e) {
+            verify(target, times(2)).getConnection();
+        }
+        first.close();
+        second.close();
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    public void testClosingTwiceReleasesOnce() throws Exception {
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+        verify(targetConnection, times(1)).close();
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    public void testCallsAreDelegated() throws Exception {
+        when(targetConnection.isReadOnly()).thenReturn(true);
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(connection.isReadOnly());
+            assertEquals(1, dataSource.getAvailablePermits());
+        }
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    public void testPermitIsReleasedWhenTargetFails() throws Exception {
+        when(target.getConnection()).thenThrow(new SQLException("Connection refused"));
+        try {
+            dataSource.getConnection();
+            fail("Expected the connection to fail");
+        } catch (SQLException e) {
+            assertEquals(2, dataSource.getAvailablePermits());
+        }
+    }
+
+    @Test
+    public void testUnwrapsToTarget() throws Exception {
+        DriverManagerDataSource pool = new DriverManagerDataSource();
+        ConcurrencyLimitingDataSource limited = new ConcurrencyLimitingDataSource(pool, 2, 50);
+        assertTrue(limited.isWrapperFor(DriverManagerDataSource.class));
+        assertSame(pool, limited.unwrap(DriverManagerDataSource.class));
+    }
+
+    @Test
+    public void testOnlyPrimaryDataSourceIsWrapped(){
+        BeanPostProcessor postProcessor = VirtualThreadConfig.concurrencyLimitingDataSourcePostProcessor(2, 50);
+        assertTrue(postProcessor.postProcessAfterInitialization(target, VirtualThreadConfig.PRIMARY_DATA_SOURCE)
+                instanceof ConcurrencyLimitingDataSource);
+        assertSame(target, postProcessor.postProcessAfterInitialization(target, "reportingDataSource"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxConcurrency(){
+        new ConcurrencyLimitingDataSource(target, 0, 50);
+    }
+}
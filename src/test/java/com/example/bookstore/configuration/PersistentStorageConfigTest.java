@@ -0,0 +1,70 @@
+package com.example.bookstore.configuration;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookView;
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.search.BookIndexer;
+import com.example.bookstore.service.BookService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class PersistentStorageConfigTest {
+
+    private BookService bookService;
+
+    private BookIndexer indexer;
+
+    private PersistentStorageConfig config;
+
+    @Before
+    public void setup() {
+        bookService = mock(BookService.class);
+        List<BookView> books = List.of(new Book("Book1", "Author1", Category.TECHNICAL),
+                new Book("Book2", "Author1", Category.POETRY), new Book("Book3", "Author2", Category.POETRY),
+                new Book("Book4", "Author3", Category.HUMOUR));
+        // the catalog has 3 pages
+        when(bookService.getBookSlice(nullable(String.class), nullable(String.class), any(PageRequest.class)))
+                .thenAnswer(invocation -> {
+                    Pageable pageable = invocation.getArgument(2);
+                    return new SliceImpl<>(books, pageable, pageable.getPageNumber() < 2);
+                });
+        indexer = mock(BookIndexer.class);
+        config = new PersistentStorageConfig(bookService,
+                new StaticListableBeanFactory(Map.of("bookIndexer", indexer)).getBeanProvider(BookIndexer.class), 5, 10, 2);
+    }
+
+    @Test
+    public void testWarmUpReadsTheHotPages() {
+        config.warmUp();
+        // the catalog has 3 pages, hence the warm-up stops before the 5 pages it is configured with
+        verify(bookService, times(3)).getBookSlice(isNull(), isNull(), any(PageRequest.class));
+        verify(bookService, times(Category.values().length)).getBookSlice(isNull(), any(String.class), any(PageRequest.class));
+        // the first authors of the hot pages, up to the 2 authors it is configured with
+        verify(bookService).getBookSlice("Author1", null, PageRequest.of(0, 10));
+        verify(bookService).getBookSlice("Author2", null, PageRequest.of(0, 10));
+        verify(bookService, never()).getBookSlice(eq("Author3"), any(), any(PageRequest.class));
+        // pages are read without counting the books
+        verify(bookService, never()).getBooks(any(), any(), any(Pageable.class));
+        verify(indexer).startLoading();
+    }
+
+    @Test
+    public void testWarmUpFailureIsIgnored() {
+        when(bookService.getBookSlice(null, Category.TECHNICAL.getValue(), PageRequest.of(0, 10)))
+                .thenThrow(new IllegalStateException("closed"));
+        config.warmUp();
+        verify(bookService, never()).getBookSlice(eq("Author1"), any(), any(PageRequest.class));
+        verify(indexer).startLoading();
+    }
+}
@@ -3,33 +3,69 @@ package com.example.bookstore.controller;
 import com.example.bookstore.advice.CustomExceptionHandler;
 import com.example.bookstore.exception.BookStoreException;
 import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookFacets;
+import com.example.bookstore.model.BulkAddResult;
+import com.example.bookstore.model.IngestResult;
+import com.example.bookstore.model.SnapshotInfo;
 import com.example.bookstore.rest.AddBookRequest;
 import com.example.bookstore.rest.Category;
+import com.example.bookstore.search.BookHit;
+import com.example.bookstore.search.Suggestion;
+import com.example.bookstore.service.BookIngestService;
+import com.example.bookstore.service.BookSearchService;
 import com.example.bookstore.service.BookService;
+import com.example.bookstore.service.BookSnapshotService;
+import com.example.bookstore.service.SearchQueryCompiler;
+import com.example.bookstore.util.KeysetCursor;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.ApplicationContext;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+import static com.example.bookstore.configuration.MetricsConfig.ERRORS_COUNTER;
 import static com.example.bookstore.exception.ErrorCode.BOOK_ALREADY_EXIST;
 import static com.example.bookstore.exception.ErrorCode.BOOK_NOT_FOUND;
+import static com.example.bookstore.exception.ErrorCode.INGEST_QUEUE_FULL;
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookController.class)
 public class BookControllerTest {
+    private static final long EXPORT_TIMEOUT = 60000;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -38,13 +74,22 @@ public class BookControllerTest {
 
     private BookService bookService = Mockito.mock(BookService.class);
 
+    private BookSearchService bookSearchService = Mockito.mock(BookSearchService.class);
+
+    private BookSnapshotService bookSnapshotService = Mockito.mock(BookSnapshotService.class);
+
+    private BookIngestService bookIngestService = Mockito.mock(BookIngestService.class);
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private ObjectMapper objectMapper = new ObjectMapper();
 
     @Before
     public void setup() {
-        final BookController bookController = new BookController(bookService);
+        final BookController bookController = new BookController(bookService, new SearchQueryCompiler(new ConcurrentMapCacheManager()), bookSearchService,
+                bookSnapshotService, bookIngestService, EXPORT_TIMEOUT);
         mockMvc = MockMvcBuilders.standaloneSetup(bookController)
-                .setControllerAdvice(new CustomExceptionHandler()).build();
+                .setControllerAdvice(new CustomExceptionHandler(meterRegistry)).build();
     }
 
     @Test
@@ -62,6 +107,17 @@ public class BookControllerTest {
         when(bookService.get(book.getId())).thenThrow(new BookStoreException(BOOK_NOT_FOUND, Map.of("id", book.getId()), String.format("Book with id %s does not exist", book.getId())));
         mockMvc.perform(get("/api/v1/books/" + book.getId()))
                 .andExpect(status().isNotFound());
+        assertEquals(1.0, meterRegistry.counter(ERRORS_COUNTER, "code", BOOK_NOT_FOUND.name()).count(), 0.0);
+    }
+
+    @Test
+    public void testGetBookByIdFromSnapshotBeingLoaded() throws Exception {
+        Book book = new Book("Book", "Author", Category.TECHNICAL);
+        when(bookService.get(book.getId())).thenThrow(new BookStoreException(BOOK_NOT_FOUND, Map.of("id", book.getId()), String.format("Book with id %s does not exist", book.getId())));
+        when(bookSnapshotService.get(book.getId())).thenReturn(Optional.of(book));
+        mockMvc.perform(get("/api/v1/books/" + book.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Book"));
     }
 
     @Test
@@ -71,26 +127,87 @@ public class BookControllerTest {
         bookRequest.setAuthor("Author1");
         bookRequest.setCategory(Category.TECHNICAL);
 
-        when(bookService.add(any())).thenReturn(new Book("Book1", "Author1", Category.TECHNICAL));
+        when(bookService.add(any(), isNull())).thenReturn(new Book("Book1", "Author1", Category.TECHNICAL));
         mockMvc.perform(post("/api/v1/books/")
                         .contentType("application/json")
                         .content(objectMapper.writeValueAsString(bookRequest)))
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    public void testAddBookWithIdempotencyKey() throws Exception {
+        AddBookRequest bookRequest = new AddBookRequest();
+        bookRequest.setName("Book1");
+        bookRequest.setAuthor("Author1");
+        bookRequest.setCategory(Category.TECHNICAL);
+
+        when(bookService.add(any(), eq("key"))).thenReturn(new Book("Book1", "Author1", Category.TECHNICAL));
+        mockMvc.perform(post("/api/v1/books/")
+                        .header("Idempotency-Key", "key")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isCreated());
+        verify(bookService).add(any(), eq("key"));
+    }
+
+    @Test
+    public void testAddBookAsync() throws Exception {
+        AddBookRequest bookRequest = new AddBookRequest();
+        bookRequest.setName("Book1");
+        bookRequest.setAuthor("Author1");
+        bookRequest.setCategory(Category.TECHNICAL);
+
+        when(bookIngestService.isEnabled()).thenReturn(true);
+        when(bookIngestService.submit(any())).thenReturn("id1");
+        mockMvc.perform(post("/api/v1/books/")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/v1/books/ingest/id1"));
+        verify(bookService, never()).add(any(), any());
+    }
+
+    @Test
+    public void testAddBookAsyncWithFullQueue() throws Exception {
+        AddBookRequest bookRequest = new AddBookRequest();
+        bookRequest.setName("Book1");
+        bookRequest.setAuthor("Author1");
+        bookRequest.setCategory(Category.TECHNICAL);
+
+        when(bookIngestService.isEnabled()).thenReturn(true);
+        when(bookIngestService.submit(any())).thenThrow(new BookStoreException(INGEST_QUEUE_FULL, Map.of("capacity", 1),
+                "Too many books are waiting to be added, retry later"));
+        mockMvc.perform(post("/api/v1/books/")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isTooManyRequests());
+        assertEquals(1.0, meterRegistry.counter(ERRORS_COUNTER, "code", INGEST_QUEUE_FULL.name()).count(), 0.0);
+    }
+
+    @Test
+    public void testGetIngestStatus() throws Exception {
+        when(bookIngestService.getResult("id1")).thenReturn(new IngestResult("id1", IngestResult.Status.DUPLICATE, "Book already exists"));
+        mockMvc.perform(get("/api/v1/books/ingest/id1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("id1"))
+                .andExpect(jsonPath("$.status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.message").value("Book already exists"));
+    }
+
     @Test
     public void testAddBookAlreadyExist() throws Exception {
         AddBookRequest bookRequest = new AddBookRequest();
         bookRequest.setName("Book1");
         bookRequest.setAuthor("Author1");
         bookRequest.setCategory(Category.TECHNICAL);
-        when(bookService.add(any())).thenThrow(new BookStoreException(BOOK_ALREADY_EXIST, Map.of("name", bookRequest.getName(), "author", bookRequest.getAuthor()),
+        when(bookService.add(any(), isNull())).thenThrow(new BookStoreException(BOOK_ALREADY_EXIST, Map.of("name", bookRequest.getName(), "author", bookRequest.getAuthor()),
                 String.format("Book already exists with name %s and author %s", bookRequest.getName(), bookRequest.getAuthor())));
 
         mockMvc.perform(post("/api/v1/books/")
                         .contentType("application/json")
                         .content(objectMapper.writeValueAsString(bookRequest)))
                 .andExpect(status().isConflict());
+        assertEquals(1.0, meterRegistry.counter(ERRORS_COUNTER, "code", BOOK_ALREADY_EXIST.name()).count(), 0.0);
     }
 
     @Test
@@ -110,6 +227,48 @@ public class BookControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void testDeleteBooksByIds() throws Exception {
+        when(bookService.deleteAll(List.of("id1", "id2"))).thenReturn(2L);
+        mockMvc.perform(post("/api/v1/books/bulk/delete")
+                        .contentType("application/json")
+                        .content("{\"ids\":[\"id1\",\"id2\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+    }
+
+    @Test
+    public void testDeleteBooksByFilter() throws Exception {
+        when(bookService.deleteAll("Author", null)).thenReturn(5L);
+        mockMvc.perform(post("/api/v1/books/bulk/delete")
+                        .contentType("application/json")
+                        .content("{\"author\":\"Author\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(5));
+    }
+
+    @Test
+    public void testSnapshotBooks() throws Exception {
+        when(bookSnapshotService.backup()).thenReturn(new SnapshotInfo("books-1.snapshot", 3));
+        mockMvc.perform(post("/api/v1/books/snapshot"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("books-1.snapshot"))
+                .andExpect(jsonPath("$.books").value(3));
+    }
+
+    @Test
+    public void testDeleteBooksWithIdsAndFilter() throws Exception {
+        mockMvc.perform(post("/api/v1/books/bulk/delete")
+                        .contentType("application/json")
+                        .content("{\"ids\":[\"id1\"],\"author\":\"Author\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/books/bulk/delete")
+                        .contentType("application/json")
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+        verify(bookService, never()).deleteAll(anyList());
+    }
+
     @Test
     public void testGetBooks() throws Exception {
         Book book = new Book("Book1", "Author", Category.TECHNICAL);
@@ -142,4 +301,208 @@ public class BookControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void testGetBooksWithCursor() throws Exception {
+        Book book = new Book("Book1", "Author", Category.TECHNICAL);
+        Book book2 = new Book("Book2", "Author", Category.TECHNICAL);
+        when(bookService.getBooks(isNull(), isNull(), isNull(), anyInt()))
+                .thenReturn(new SliceImpl<>(List.of(book, book2), PageRequest.of(0, 2), true));
+        mockMvc.perform(get("/api/v1/books/")
+                        .param("cursor", "")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['has-next']").value(true))
+                .andExpect(jsonPath("$['next-cursor']").value(KeysetCursor.after(book2).encode()));
+    }
+
+    @Test
+    public void testGetBooksWithoutTotals() throws Exception {
+        Book book = new Book("Book1", "Author", Category.TECHNICAL);
+        PageRequest pageable = PageRequest.of(0, 1);
+        when(bookService.getBookSlice(null, null, pageable)).thenReturn(new SliceImpl<>(List.of(book), pageable, true));
+        mockMvc.perform(get("/api/v1/books/")
+                        .param("size", "1")
+                        .param("totals", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['has-next']").value(true))
+                .andExpect(jsonPath("$['total-items']").doesNotExist());
+        verify(bookService, never()).countBooks(nullable(String.class), nullable(String.class));
+    }
+
+    @Test
+    public void testGetBooksWithApproximateTotals() throws Exception {
+        Book book = new Book("Book1", "Author", Category.TECHNICAL);
+        PageRequest pageable = PageRequest.of(0, 1);
+        when(bookService.getBookSlice("Author", null, pageable)).thenReturn(new SliceImpl<>(List.of(book), pageable, true));
+        when(bookService.countBooks("Author", null)).thenReturn(5L);
+        mockMvc.perform(get("/api/v1/books/")
+                        .param("author", "Author")
+                        .param("size", "1")
+                        .param("totals", "approximate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['total-items']").value(5))
+                .andExpect(jsonPath("$['total-pages']").value(5))
+                .andExpect(jsonPath("$['totals-approximate']").value(true));
+    }
+
+    @Test
+    public void testSearchBooksWithApproximateTotalsOnLastPage() throws Exception {
+        Book book = new Book("Book1", "Author", Category.TECHNICAL);
+        PageRequest pageable = PageRequest.of(1, 2);
+        when(bookService.getBookSlice(any(Specification.class), eq(pageable))).thenReturn(new SliceImpl<>(List.of(book), pageable, false));
+        when(bookService.countBooks(eq("name:Book1"), any(Specification.class))).thenReturn(7L);
+        mockMvc.perform(get("/api/v1/books/search")
+                        .param("query", "name:Book1")
+                        .param("page", "1")
+                        .param("size", "2")
+                        .param("totals", "approximate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['total-items']").value(3))
+                .andExpect(jsonPath("$['totals-approximate']").value(false));
+    }
+
+    @Test
+    public void testGetBooksWithInvalidTotals() throws Exception {
+        mockMvc.perform(get("/api/v1/books/")
+                        .param("totals", "some"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetBooksWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/books/")
+                        .param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testAddBooks() throws Exception {
+        AddBookRequest bookRequest = new AddBookRequest();
+        bookRequest.setName("Book1");
+        bookRequest.setAuthor("Author1");
+        bookRequest.setCategory(Category.TECHNICAL);
+        Book book = new Book("Book1", "Author1", Category.TECHNICAL);
+
+        when(bookService.addAll(anyList())).thenReturn(List.of(BulkAddResult.created(book), BulkAddResult.duplicate(book)));
+        mockMvc.perform(post("/api/v1/books/bulk")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(List.of(bookRequest, bookRequest))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.duplicates").value(1))
+                .andExpect(jsonPath("$.results[1].index").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("DUPLICATE"));
+    }
+
+    @Test
+    public void testAddBooksAsNdjson() throws Exception {
+        AddBookRequest bookRequest = new AddBookRequest();
+        bookRequest.setName("Book1");
+        bookRequest.setAuthor("Author1");
+        bookRequest.setCategory(Category.TECHNICAL);
+        Book book = new Book("Book1", "Author1", Category.TECHNICAL);
+
+        when(bookService.addAll(anyList())).thenReturn(List.of(BulkAddResult.created(book), BulkAddResult.created(book)));
+        String line = objectMapper.writeValueAsString(bookRequest);
+        mockMvc.perform(post("/api/v1/books/bulk")
+                        .contentType("application/x-ndjson")
+                        .content(line + "\n" + line + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.results[0].id").value(book.getId()));
+    }
+
+    @Test
+    public void testAddBooksAsNdjsonWithMalformedBook() throws Exception {
+        mockMvc.perform(post("/api/v1/books/bulk")
+                        .contentType("application/x-ndjson")
+                        .content("{\"name\":\"Book1\",\"author\":\"Author1\",\"category\":\"Technical\"}\n{\"name\":"))
+                .andExpect(status().isBadRequest());
+        verify(bookService, never()).addAll(anyList());
+    }
+
+    @Test
+    public void testAddBooksAsNdjsonWithMalformedBookAfterFirstChunk() throws Exception {
+        when(bookService.addAll(anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            return books.stream().map(BulkAddResult::created).collect(Collectors.toList());
+        });
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1001; i++) {
+            content.append("{\"name\":\"Book").append(i).append("\",\"author\":\"Author1\",\"category\":\"Technical\"}\n");
+        }
+        content.append("{\"name\":\n");
+        mockMvc.perform(post("/api/v1/books/bulk")
+                        .contentType("application/x-ndjson")
+                        .content(content.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1001))
+                .andExpect(jsonPath("$.invalid").value(1))
+                .andExpect(jsonPath("$.results[1000].index").value(1000))
+                .andExpect(jsonPath("$.results[1001].index").value(1001))
+                .andExpect(jsonPath("$.results[1001].status").value("INVALID"));
+    }
+
+    @Test
+    public void testExportBooksAsCsv() throws Exception {
+        Book book = new Book("Book1", "Author", Category.TECHNICAL);
+        doAnswer(invocation -> {
+            Consumer<Book> consumer = invocation.getArgument(2);
+            consumer.accept(book);
+            return null;
+        }).when(bookService).export(any(), any(), any());
+        MvcResult result = mockMvc.perform(get("/api/v1/books/export")
+                        .param("author", "Author")
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(EXPORT_TIMEOUT, result.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string("id,name,author,category\n" + book.getId() + ",Book1,Author,Technical\n"));
+    }
+
+    @Test
+    public void testExportBooksWithInvalidFormat() throws Exception {
+        mockMvc.perform(get("/api/v1/books/export")
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+
+    @Test
+    public void testFullTextSearchBooks() throws Exception {
+        Book book = new Book("Learning Java", "Author", Category.TECHNICAL);
+        when(bookSearchService.search("java", PageRequest.of(0, 10)))
+                .thenReturn(new PageImpl<>(List.of(new BookHit(book, 2.0)), PageRequest.of(0, 10), 1));
+        mockMvc.perform(get("/api/v1/books/fulltext").param("q", "java").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits[0].book.id").value(book.getId()))
+                .andExpect(jsonPath("$.hits[0].score").value(2.0))
+                .andExpect(jsonPath("$['total-items']").value(1));
+    }
+
+    @Test
+    public void testSuggestBooks() throws Exception {
+        when(bookSearchService.suggest("lea", 5))
+                .thenReturn(List.of(new Suggestion("Learning Java", Suggestion.Type.NAME, 2)));
+        mockMvc.perform(get("/api/v1/books/suggest").param("prefix", "lea").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.suggestions[0].text").value("Learning Java"))
+                .andExpect(jsonPath("$.suggestions[0].type").value("NAME"))
+                .andExpect(jsonPath("$.suggestions[0].count").value(2));
+    }
+
+    @Test
+    public void testGetFacets() throws Exception {
+        BookFacets facets = new BookFacets(2, List.of(new BookFacets.Count(Category.TECHNICAL.getValue(), 2)),
+                List.of(new BookFacets.Count("Author", 2)));
+        when(bookSearchService.getFacets(any(), anyInt())).thenReturn(facets);
+        mockMvc.perform(get("/api/v1/books/facets").param("query", "name:Learn*"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.categories[0].value").value(Category.TECHNICAL.getValue()))
+                .andExpect(jsonPath("$.authors[0].count").value(2));
+    }
 }
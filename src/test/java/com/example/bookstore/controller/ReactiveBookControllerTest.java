@@ -0,0 +1,151 @@
+package com.example.bookstore.controller;
+
+import com.example.bookstore.advice.ReactiveExceptionHandler;
+import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.rest.AddBookRequest;
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.service.ReactiveBookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.example.bookstore.configuration.MetricsConfig.ERRORS_COUNTER;
+import static com.example.bookstore.exception.ErrorCode.BOOK_ALREADY_EXIST;
+import static com.example.bookstore.exception.ErrorCode.BOOK_NOT_FOUND;
+import static com.example.bookstore.exception.ErrorCode.VALIDATION_ERROR;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReactiveBookControllerTest {
+
+    private WebTestClient webTestClient;
+
+    private ReactiveBookService bookService = Mockito.mock(ReactiveBookService.class);
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Before
+    public void setup() {
+        webTestClient = WebTestClient.bindToController(new ReactiveBookController(bookService))
+                .controllerAdvice(new ReactiveExceptionHandler(meterRegistry))
+                .build();
+    }
+
+    @Test
+    public void testGetBookById() {
+        Book book = new Book("Book", "Author", Category.TECHNICAL);
+        when(bookService.get(book.getId())).thenReturn(Mono.just(book));
+        webTestClient.get().uri("/api/v1/books/" + book.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(book.getId())
+                .jsonPath("$.name").isEqualTo("Book");
+    }
+
+    @Test
+    public void testGetBookByIdNotFound() {
+        Book book = new Book("Book", "Author", Category.TECHNICAL);
+        when(bookService.get(book.getId())).thenReturn(Mono.error(new BookStoreException(BOOK_NOT_FOUND,
+                Map.of("id", book.getId()), String.format("Book with id %s does not exist", book.getId()))));
+        webTestClient.get().uri("/api/v1/books/" + book.getId())
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo(BOOK_NOT_FOUND.name());
+        assertEquals(1.0, meterRegistry.counter(ERRORS_COUNTER, "code", BOOK_NOT_FOUND.name()).count(), 0.0);
+    }
+
+    @Test
+    public void testAddBook() {
+        when(bookService.add(any())).thenReturn(Mono.just(new Book("Book1", "Author1", Category.TECHNICAL)));
+        webTestClient.post().uri("/api/v1/books")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(addBookRequest())
+                .exchange()
+                .expectStatus().isCreated();
+    }
+
+    @Test
+    public void testAddBookAlreadyExist() {
+        when(bookService.add(any())).thenReturn(Mono.error(new BookStoreException(BOOK_ALREADY_EXIST,
+                Map.of("name", "Book1", "author", "Author1"), "Book already exists with name Book1 and author Author1")));
+        webTestClient.post().uri("/api/v1/books")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(addBookRequest())
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    public void testDeleteBook() {
+        Book book = new Book("Book", "Author", Category.TECHNICAL);
+        when(bookService.delete(book.getId())).thenReturn(Mono.empty());
+        webTestClient.delete().uri("/api/v1/books/" + book.getId())
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    public void testGetBooks() {
+        Book book = new Book("Book", "Author", Category.TECHNICAL);
+        when(bookService.getBooks(eq("Author"), isNull(), eq(PageRequest.of(0, 50))))
+                .thenReturn(Mono.just(new PageImpl<>(List.of(book), PageRequest.of(0, 50), 1)));
+        webTestClient.get().uri("/api/v1/books?author=Author")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.books[0].id").isEqualTo(book.getId())
+                .jsonPath("$.totalItems").isEqualTo(1);
+    }
+
+    @Test
+    public void testStreamSearchBook() {
+        Book book = new Book("Book", "Author", Category.TECHNICAL);
+        Book book2 = new Book("Book2", "Author", Category.TECHNICAL);
+        when(bookService.streamBooks(any(Criteria.class))).thenReturn(Flux.just(book, book2));
+        webTestClient.get().uri(uriBuilder -> uriBuilder.path("/api/v1/books/search").queryParam("query", "author:Author").build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(com.example.bookstore.rest.Book.class)
+                .hasSize(2);
+    }
+
+    @Test
+    public void testSearchBookInvalidQuery() {
+        webTestClient.get().uri(uriBuilder -> uriBuilder.path("/api/v1/books/search").queryParam("query", "title:Book").build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo(VALIDATION_ERROR.name());
+        verify(bookService, never()).getBooks(any(Criteria.class), any());
+    }
+
+    private static AddBookRequest addBookRequest() {
+        AddBookRequest bookRequest = new AddBookRequest();
+        bookRequest.setName("Book1");
+        bookRequest.setAuthor("Author1");
+        bookRequest.setCategory(Category.TECHNICAL);
+        return bookRequest;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.bookstore.repository;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.util.Categories;
+import com.example.bookstore.util.KeysetCursor;
+import com.example.bookstore.util.SearchQueryParser;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the plans of the queries of the hot finders against the schema created by the migrations, so that a finder
+ * falling back to a table scan fails the build.
+ * The SQL generated by Hibernate for each finder is recorded by a StatementInspector and explained with the values the
+ * finder binds, in order. The query cache is disabled so that every finder call runs its query.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.bookstore.repository.BookQueryPlanTest$RecordingStatementInspector",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"})
+public class BookQueryPlanTest {
+
+    private static final int PAGE_SIZE = 50;
+
+    private static final String ZERO_ID = "00000000-0000-0000-0000-000000000000";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Before
+    public void setup(){
+        List<Book> books = new ArrayList<>();
+        Category[] categories = Category.values();
+        for(int i = 0; i < 1000; i++){
+            books.add(new Book("Book" + i, "Author" + (i % 50), categories[i % categories.length]));
+        }
+        bookRepository.insertAll(books);
+        entityManager.createNativeQuery("ANALYZE").executeUpdate();
+    }
+
+    @Test
+    public void testFindByAuthorUsesIndex(){
+        assertUsesIndex("author_category_index",
+                plan(() -> bookRepository.findRowsByAuthor("Author1", PageRequest.of(0, PAGE_SIZE)), "Author1", PAGE_SIZE));
+    }
+
+    @Test
+    public void testFindByAuthorAndCategoryUsesIndex(){
+        byte code = Categories.code(Category.TECHNICAL);
+        assertUsesIndex("author_category_index",
+                plan(() -> bookRepository.findRowsByAuthorAndCategory("Author1", Category.TECHNICAL, PageRequest.of(0, PAGE_SIZE)),
+                        "Author1", code, PAGE_SIZE));
+    }
+
+    @Test
+    public void testFindByCategoryUsesIndex(){
+        byte code = Categories.code(Category.TECHNICAL);
+        assertUsesIndex("category_id_index",
+                plan(() -> bookRepository.findRowsByCategory(Category.TECHNICAL, PageRequest.of(0, PAGE_SIZE)), code, PAGE_SIZE));
+    }
+
+    @Test
+    public void testFindIdsByCategoryUsesIndex(){
+        byte code = Categories.code(Category.TECHNICAL);
+        assertUsesIndex("category_id_index",
+                plan(() -> bookRepository.findIds(SearchQueryParser.parse("category:Technical").toSpecification(), PAGE_SIZE),
+                        code, PAGE_SIZE));
+    }
+
+    @Test
+    public void testFindAllAfterUsesSortIndex(){
+        String plan = assertUsesIndex("name_id_index",
+                plan(() -> bookRepository.findAllAfter(null, new KeysetCursor("Book1", ZERO_ID), PAGE_SIZE),
+                        "Book1", "Book1", ZERO_ID, PAGE_SIZE + 1));
+        assertTrue(plan, plan.contains("index sorted"));
+    }
+
+    @Test
+    public void testFindByNameAndAuthorUsesIndex(){
+        String plan = plan(() -> bookRepository.findByNameAndAuthor("Book1", "Author1"), "Book1", "Author1");
+        assertFalse(plan, plan.contains("tableScan"));
+    }
+
+    @Test
+    public void testFindByNameAndAuthorOfUsesIndex(){
+        List<Book> books = List.of(new Book("Book1", "Author1", Category.TECHNICAL), new Book("Book2", "Author2", Category.TECHNICAL));
+        String plan = plan(() -> bookRepository.findByNameAndAuthorOf(books),
+                "Book1", "Book2", "Book1", "Author1", "Book2", "Author2");
+        assertFalse(plan, plan.contains("tableScan"));
+    }
+
+        private String assertUsesIndex(String index, String plan){
+        assertFalse(plan, plan.contains("tableScan"));
+        assertTrue(plan, plan.contains("PUBLIC." + index.toUpperCase()));
+        return plan;
+    }
+
+    /**
+     * Runs the finder and explains the first query it ran, a page query being run before its count query.
+     *
+     * @param parameters the values bound by the finder, in order
+     */
+    private String plan(Runnable finder, Object... parameters){
+        RecordingStatementInspector.STATEMENTS.clear();
+        finder.run();
+        String sql = RecordingStatementInspector.STATEMENTS.stream()
+                .filter(statement -> statement.regionMatches(true, 0, "select", 0, 6))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("The finder ran no query"));
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int count = statement.getParameterMetaData().getParameterCount();
+                for (int i = 0; i < count; i++) {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return sql + "\n" + resultSet.getString(1);
+                }
+            }
+        });
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.bookstore.repository;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookRow;
+import com.example.bookstore.rest.Category;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs outside of a test transaction, as query results are only cached once the writes before them are committed.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookRepositoryCacheTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Book book;
+
+    private Book book2;
+
+    @Before
+    public void setup(){
+        book = new Book("Book1", "Cached Author", Category.TECHNICAL);
+        book2 = new Book("Book2", "Cached Author", Category.POETRY);
+        bookRepository.insertAll(List.of(book, book2));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testFindRowsByAuthorIsServedFromQueryCache(){
+        bookRepository.findRowsByAuthor("Cached Author", PageRequest.of(0, 10));
+        Page<BookRow> page = bookRepository.findRowsByAuthor("Cached Author", PageRequest.of(0, 10));
+        assertEquals(2, page.getTotalElements());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    public void testQueryCacheIsInvalidatedByWrites(){
+        bookRepository.findRowsByAuthor("Cached Author", PageRequest.of(0, 10));
+        Book book3 = new Book("Book3", "Cached Author", Category.TECHNICAL);
+        bookRepository.insertAll(List.of(book3));
+        assertEquals(3, bookRepository.findRowsByAuthor("Cached Author", PageRequest.of(0, 10)).getTotalElements());
+        bookRepository.deleteRowById(book3.getUuid());
+        assertEquals(2, bookRepository.findRowsByAuthor("Cached Author", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+    }
+
+    @After
+    public void tearDown(){
+        bookRepository.deleteRowsByIdIn(List.of(book.getUuid(), book2.getUuid()));
+    }
+}
@@ -1,20 +1,33 @@
 package com.example.bookstore.repository;
 
 import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookRow;
+import com.example.bookstore.model.BookView;
 import com.example.bookstore.rest.Category;
+import com.example.bookstore.service.SearchQueryCompiler;
+import com.example.bookstore.util.Categories;
+import com.example.bookstore.util.KeysetCursor;
+import com.example.bookstore.util.SearchQueryParser;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
+import static com.example.bookstore.configuration.CacheConfig.SEARCH_QUERIES_CACHE;
 import static org.junit.Assert.*;
 
 @RunWith(SpringRunner.class)
@@ -52,19 +65,66 @@ public class BookRepositoryTest {
         Book savedBook = bookRepository.saveAndFlush(book);
         assertNotNull(savedBook);
         assertEquals(book.getId(), savedBook.getId());
-        bookRepository.deleteById(book.getId());
-        assertFalse(bookRepository.existsById(book.getId()));
+        bookRepository.deleteById(book.getUuid());
+        assertFalse(bookRepository.existsById(book.getUuid()));
+    }
+
+    @Test
+    public void testDeleteRowById(){
+        assertEquals(1, bookRepository.deleteRowById(book.getUuid()));
+        assertFalse(bookRepository.existsById(book.getUuid()));
+        assertEquals(0, bookRepository.deleteRowById(book.getUuid()));
+    }
+
+    @Test
+    public void testDeleteRowsByIdIn(){
+        Book book2 = bookRepository.saveAndFlush(new Book("Book2", "Author2", Category.TECHNICAL));
+        assertEquals(2, bookRepository.deleteRowsByIdIn(List.of(book.getUuid(), book2.getUuid(), UUID.randomUUID())));
+        assertFalse(bookRepository.existsById(book2.getUuid()));
+    }
+
+    @Test
+    public void testFindIds(){
+        Book book2 = bookRepository.saveAndFlush(new Book("Book2", "Author2", Category.POETRY));
+        bookRepository.saveAndFlush(new Book("Book3", "Author2", Category.POETRY));
+        assertEquals(1, bookRepository.findIds(SearchQueryParser.parse("author:Author2").toSpecification(), 1).size());
+        assertEquals(List.of(book2.getUuid()),
+                bookRepository.findIds(SearchQueryParser.parse("name:Book2").toSpecification(), 10));
+    }
+
+    @Test
+    public void testFindIdsByCategory(){
+        Book book2 = bookRepository.saveAndFlush(new Book("Book2", "Author2", Category.POETRY));
+        assertEquals(List.of(book2.getUuid()),
+                bookRepository.findIds(SearchQueryParser.parse("category:Poe*").toSpecification(), 10));
+        assertEquals(2, bookRepository.findIds(SearchQueryParser.parse("category:[Poetry,Technical]").toSpecification(), 10).size());
+        assertEquals(List.of(book2.getUuid()),
+                bookRepository.findIds(SearchQueryParser.parse("category!:Technical").toSpecification(), 10));
+        assertTrue(bookRepository.findIds(SearchQueryParser.parse("category:Unknown").toSpecification(), 10).isEmpty());
+    }
+
+    @Test
+    public void testFindIdsById(){
+        Book book2 = bookRepository.saveAndFlush(new Book("Book2", "Author2", Category.POETRY));
+        assertEquals(List.of(book2.getUuid()),
+                bookRepository.findIds(SearchQueryParser.parse("id:" + book2.getId()).toSpecification(), 10));
+        assertEquals(List.of(book.getUuid()),
+                bookRepository.findIds(SearchQueryParser.parse("id!:" + book2.getId()).toSpecification(), 10));
+        assertEquals(List.of(book2.getUuid()),
+                bookRepository.findIds(SearchQueryParser.parse("id:[" + book2.getId() + ", abc]").toSpecification(), 10));
+        assertTrue(bookRepository.findIds(SearchQueryParser.parse("id:abc").toSpecification(), 10).isEmpty());
+        assertEquals(2, bookRepository.findIds(SearchQueryParser.parse("id!:abc").toSpecification(), 10).size());
     }
 
     @Test
     public void testExists(){
-        boolean exists = bookRepository.existsById(book.getId());
+        boolean exists = bookRepository.existsById(book.getUuid());
         assertTrue(exists);
     }
 
     @Test
     public void testFindById(){
-        Optional<Book> returnedBook = bookRepository.findById(book.getId());
+        Optional<Book> returnedBook = bookRepository.findById(book.getUuid());
         assertTrue(returnedBook.isPresent());
     }
 
@@ -77,11 +137,34 @@ public class BookRepositoryTest {
 
     @Test
     public void testFindByCategory(){
-        Page<Book> bookPage = bookRepository.findByCategory(book.getCategory(), pageable);
+        Page<Book> bookPage = bookRepository.findByCategory(Categories.fromValue(book.getCategory()), pageable);
         assertNotNull(bookPage);
         assertEquals(1, bookPage.getTotalElements());
     }
 
+    @Test
+    public void testFindRowsByAuthorAndCategory(){
+        bookRepository.saveAndFlush(new Book("Book2", "Author", Category.POETRY));
+        Page<BookRow> rowPage = bookRepository.findRowsByAuthorAndCategory(book.getAuthor(), Categories.fromValue(book.getCategory()), pageable);
+        assertEquals(1, rowPage.getTotalElements());
+        BookRow row = rowPage.getContent().get(0);
+        assertEquals(book.getId(), row.getId());
+        assertEquals(book.getName(), row.getName());
+        assertEquals(book.getAuthor(), row.getAuthor());
+        assertEquals(book.getCategory(), row.getCategory());
+    }
+
+    @Test
+    public void testFindViews(){
+        bookRepository.saveAndFlush(new Book("Book2", "Author", Category.TECHNICAL));
+        bookRepository.saveAndFlush(new Book("Book3", "Author", Category.POETRY));
+        Page<BookView> viewPage = bookRepository.findViews(
+                SearchQueryParser.parse("category:Technical").toSpecification(), PageRequest.of(0, 1, Sort.by("name")));
+        assertEquals(2, viewPage.getTotalElements());
+        assertEquals("Book1", viewPage.getContent().get(0).getName());
+        assertTrue(viewPage.getContent().get(0) instanceof BookRow);
+    }
+
     @Test
     public void testFindByNameAndAuthor(){
         Optional<Book> returnedBook = bookRepository.findByNameAndAuthor(book.getName(), book.getAuthor());
@@ -97,10 +180,91 @@ public class BookRepositoryTest {
         assertEquals(2, bookPage.getTotalElements());
     }
 
+    @Test
+    public void testFindAllAfter(){
+        bookRepository.saveAndFlush(new Book("Book2", "Author", Category.TECHNICAL));
+        bookRepository.saveAndFlush(new Book("Book3", "Author", Category.TECHNICAL));
+        Slice<BookView> firstSlice = bookRepository.findAllAfter(null, null, 2);
+        assertEquals(2, firstSlice.getNumberOfElements());
+        assertTrue(firstSlice.hasNext());
+        assertEquals("Book1", firstSlice.getContent().get(0).getName());
+
+        KeysetCursor cursor = KeysetCursor.after(firstSlice.getContent().get(1));
+        Slice<BookView> lastSlice = bookRepository.findAllAfter(null, cursor, 2);
+        assertEquals(1, lastSlice.getNumberOfElements());
+        assertFalse(lastSlice.hasNext());
+        assertEquals("Book3", lastSlice.getContent().get(0).getName());
+    }
+
+    @Test
+    public void testInsertAll(){
+        Book book2 = new Book("Book2", "Author", Category.TECHNICAL);
+        Book book3 = new Book("Book3", "Author2", Category.POETRY);
+        bookRepository.insertAll(List.of(book2, book3));
+        assertTrue(bookRepository.existsById(book2.getUuid()));
+        assertTrue(bookRepository.existsById(book3.getUuid()));
+    }
+
+    @Test
+    public void testFindByNameAndAuthorOf(){
+        Book book2 = bookRepository.saveAndFlush(new Book("Book2", "Author2", Category.POETRY));
+        // the names and the authors of the stored books, crossed
+        List<BookView> books = bookRepository.findByNameAndAuthorOf(List.of(
+                new Book(book.getName(), book2.getAuthor(), Category.TECHNICAL),
+                new Book(book2.getName(), book.getAuthor(), Category.TECHNICAL),
+                new Book(book2.getName(), book2.getAuthor(), Category.TECHNICAL)));
+        assertEquals(1, books.size());
+        assertEquals(book2.getId(), books.get(0).getId());
+    }
+
+    @Test
+    public void testFindAllByQueriesOfSameShape(){
+        bookRepository.saveAndFlush(new Book("Learn DSA", "Author2", Category.TECHNICAL));
+        bookRepository.saveAndFlush(new Book("Poems", "Author3", Category.POETRY));
+        SearchQueryCompiler compiler = new SearchQueryCompiler(new ConcurrentMapCacheManager(SEARCH_QUERIES_CACHE));
+        Page<Book> learn = bookRepository.findAll(compiler.compile("name:Learn* AND author:Author2"), pageable);
+        Page<Book> poems = bookRepository.findAll(compiler.compile("name:Poe* AND author:Author3"), pageable);
+        assertEquals(1, learn.getTotalElements());
+        assertEquals("Learn DSA", learn.getContent().get(0).getName());
+        assertEquals(1, poems.getTotalElements());
+        assertEquals("Poems", poems.getContent().get(0).getName());
+    }
+
+    @Test
+    public void testFindAllBySearchQuery(){
+        bookRepository.saveAndFlush(new Book("Learn DSA", "Author2", Category.TECHNICAL));
+        bookRepository.saveAndFlush(new Book("Poems", "Author2", Category.POETRY));
+        bookRepository.saveAndFlush(new Book("Learn Poetry", "Author3", Category.POETRY));
+        Page<Book> bookPage = bookRepository.findAll(
+                SearchQueryParser.parse("name:Learn* AND (author:Author2 OR category:[Poetry, Humour])").toSpecification(), pageable);
+        assertEquals(2, bookPage.getTotalElements());
+    }
+
+    @Test
+    public void testFindSlice(){
+        bookRepository.saveAndFlush(new Book("Book2", "Author", Category.TECHNICAL));
+        Slice<BookView> slice = bookRepository.findSlice(null, PageRequest.of(0, 1));
+        assertEquals(1, slice.getNumberOfElements());
+        assertTrue(slice.hasNext());
+        slice = bookRepository.findSlice(null, PageRequest.of(1, 1));
+        assertFalse(slice.hasNext());
+    }
+
+    @Test
+    public void testCountBy(){
+        bookRepository.saveAndFlush(new Book("Learn DSA", "Author2", Category.TECHNICAL));
+        bookRepository.saveAndFlush(new Book("Poems", "Author2", Category.POETRY));
+        Map<String, Long> counts = bookRepository.countBy(null, "category", null);
+        assertEquals(List.of(Category.TECHNICAL.getValue(), Category.POETRY.getValue()), List.copyOf(counts.keySet()));
+        assertEquals(Long.valueOf(2), counts.get(Category.TECHNICAL.getValue()));
+        Map<String, Long> authors = bookRepository.countBy(SearchQueryParser.parse("name:Learn*").toSpecification(), "author", 1);
+        assertEquals(Map.of("Author2", 1L), authors);
+    }
+
     @After
     public void tearDown(){
-        if(bookRepository.existsById(book.getId())){
-            bookRepository.deleteById(book.getId());
+        if(bookRepository.existsById(book.getUuid())){
+            bookRepository.deleteById(book.getUuid());
         }
     }
 }
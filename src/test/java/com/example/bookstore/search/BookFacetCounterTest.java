@@ -0,0 +1,61 @@
+package com.example.bookstore.search;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookFacets;
+import com.example.bookstore.rest.Category;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class BookFacetCounterTest {
+
+    private BookFacetCounter facetCounter;
+
+    private Book poems = new Book("Poems", "Author2", Category.POETRY);
+
+    @Before
+    public void setup(){
+        facetCounter = new BookFacetCounter();
+        facetCounter.add(new Book("Learn Java", "Author1", Category.TECHNICAL));
+        facetCounter.add(new Book("Learn DSA", "Author2", Category.TECHNICAL));
+        facetCounter.add(new Book("Learn Poetry", "Author2", Category.POETRY));
+        facetCounter.add(poems);
+    }
+
+    @Test
+    public void testCount(){
+        assertEquals(4, facetCounter.count(null, null));
+        assertEquals(3, facetCounter.count("Author2", null));
+        assertEquals(2, facetCounter.count(null, Category.POETRY.getValue()));
+        assertEquals(1, facetCounter.count("Author2", Category.TECHNICAL.getValue()));
+        assertEquals(0, facetCounter.count("Author3", null));
+    }
+
+    @Test
+    public void testCountByCategory(){
+        List<BookFacets.Count> counts = facetCounter.countByCategory(
+                List.of(Category.TECHNICAL.getValue(), Category.HUMOUR.getValue(), Category.POETRY.getValue()));
+        assertEquals(List.of(2L, 0L, 2L), counts.stream().map(BookFacets.Count::getCount).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testTopAuthors(){
+        List<BookFacets.Count> authors = facetCounter.topAuthors(1);
+        assertEquals(1, authors.size());
+        assertEquals("Author2", authors.get(0).getValue());
+        assertEquals(3, authors.get(0).getCount());
+    }
+
+    @Test
+    public void testRemove(){
+        facetCounter.remove(poems);
+        assertEquals(3, facetCounter.count(null, null));
+        assertEquals(1, facetCounter.count("Author2", Category.POETRY.getValue()));
+        assertEquals(List.of("Author2", "Author1"),
+                facetCounter.topAuthors(10).stream().map(BookFacets.Count::getValue).collect(Collectors.toList()));
+    }
+}
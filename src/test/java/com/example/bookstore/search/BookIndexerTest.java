@@ -0,0 +1,137 @@
+package com.example.bookstore.search;
+
+import com.example.bookstore.event.BooksAddedEvent;
+import com.example.bookstore.event.BooksDeletedEvent;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.service.BookService;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class BookIndexerTest {
+
+    private BookService bookService = Mockito.mock(BookService.class);
+
+    private BookTextIndex textIndex = new BookTextIndex();
+
+    private BookFacetCounter facetCounter = new BookFacetCounter();
+
+    private Book book = new Book("Learning Java", "Author", Category.TECHNICAL);
+
+    private Book book2 = new Book("Poems", "Author", Category.POETRY);
+
+    @Test
+    public void testBookDeletedDuringLoadIsNotIndexed() {
+        BookIndexer indexer = newIndexer(false);
+        doAnswer(invocation -> {
+            Consumer<Book> consumer = invocation.getArgument(2);
+            consumer.accept(book);
+            // deleted after the export started, but before it read the book
+            indexer.onBooksDeleted(new BooksDeletedEvent(List.of(book2.getId())));
+            consumer.accept(book2);
+            return null;
+        }).when(bookService).export(isNull(), isNull(), any());
+        indexer.onReady();
+        assertNotNull(textIndex.get(book.getId()));
+        assertNull(textIndex.get(book2.getId()));
+        assertEquals(1, facetCounter.count(null, null));
+    }
+
+    @Test
+    public void testLazyLoadOnFirstUse() {
+        BookIndexer indexer = newIndexer(true);
+        doAnswer(invocation -> {
+            Consumer<Book> consumer = invocation.getArgument(2);
+            consumer.accept(book);
+            return null;
+        }).when(bookService).export(isNull(), isNull(), any());
+        indexer.onReady();
+        // the events before the build are read by the build from the db
+        indexer.onBooksAdded(new BooksAddedEvent(List.of(book2)));
+        verify(bookService, never()).export(any(), any(), any());
+        assertFalse(indexer.isLoaded());
+        assertNull(textIndex.get(book2.getId()));
+
+        indexer.startLoading();
+        indexer.startLoading();
+        assertTrue(indexer.isLoaded());
+        assertTrue(facetCounter.isLoaded());
+        verify(bookService, times(1)).export(isNull(), isNull(), any());
+        assertNotNull(textIndex.get(book.getId()));
+
+        indexer.onBooksAdded(new BooksAddedEvent(List.of(book2)));
+        assertNotNull(textIndex.get(book2.getId()));
+        indexer.onBooksDeleted(new BooksDeletedEvent(List.of(book.getId())));
+        assertNull(textIndex.get(book.getId()));
+    }
+
+    @Test
+    public void testStartLoadingDoesNotWaitForTheBuild() {
+        List<Runnable> builds = new ArrayList<>();
+        BookIndexer indexer = newIndexer(false, builds::add);
+        doAnswer(invocation -> {
+            Consumer<Book> consumer = invocation.getArgument(2);
+            consumer.accept(book);
+            return null;
+        }).when(bookService).export(isNull(), isNull(), any());
+        indexer.onReady();
+        indexer.startLoading();
+        assertEquals(1, builds.size());
+        assertFalse(indexer.isLoaded());
+        verify(bookService, never()).export(any(), any(), any());
+
+        builds.get(0).run();
+        assertTrue(indexer.isLoaded());
+        assertNotNull(textIndex.get(book.getId()));
+        indexer.startLoading();
+        assertEquals(1, builds.size());
+    }
+
+    @Test
+    public void testFailedBuildIsRestarted() {
+        BookIndexer indexer = newIndexer(true);
+        doThrow(new IllegalStateException("closed")).when(bookService).export(isNull(), isNull(), any());
+        indexer.startLoading();
+        assertFalse(indexer.isLoaded());
+        // the events received meanwhile are applied
+        indexer.onBooksAdded(new BooksAddedEvent(List.of(book2)));
+        assertNotNull(textIndex.get(book2.getId()));
+
+        doAnswer(invocation -> {
+            Consumer<Book> consumer = invocation.getArgument(2);
+            consumer.accept(book);
+            consumer.accept(book2);
+            return null;
+        }).when(bookService).export(isNull(), isNull(), any());
+        indexer.startLoading();
+        assertTrue(indexer.isLoaded());
+        assertEquals(2, textIndex.size());
+        assertEquals(2, facetCounter.count(null, null));
+    }
+
+    private BookIndexer newIndexer(boolean lazy) {
+        return newIndexer(lazy, Runnable::run);
+    }
+
+    private BookIndexer newIndexer(boolean lazy, Executor executor) {
+        return new BookIndexer(bookService, textIndex, List.of(textIndex, facetCounter), lazy, executor);
+    }
+}
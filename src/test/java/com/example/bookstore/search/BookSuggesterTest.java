@@ -0,0 +1,127 @@
+package com.example.bookstore.search;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.rest.Category;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BookSuggesterTest {
+
+    private BookSuggester suggester;
+
+    private Book javaByBhatt = new Book("Learning Java", "Chetan Bhatt", Category.TECHNICAL);
+
+    private Book javaByDoe = new Book("Learning  java", "John Doe", Category.TECHNICAL);
+
+    private Book python = new Book("Learning Python", "Chetan Bhatt", Category.TECHNICAL);
+
+    private Book learn = new Book("Learn", "Jane Doe", Category.LITERATURE);
+
+    @Before
+    public void setup(){
+        suggester = new BookSuggester(1000, 64);
+        suggester.add(javaByBhatt);
+        suggester.add(javaByDoe);
+        suggester.add(python);
+        suggester.add(learn);
+    }
+
+    @Test
+    public void testSuggestRanksByCount(){
+        List<Suggestion> suggestions = suggester.suggest("lEaRn", 10);
+        assertEquals(List.of("Learning Java", "Learn", "Learning Python"), texts(suggestions));
+        assertEquals(2, suggestions.get(0).getCount());
+        assertEquals(Suggestion.Type.NAME, suggestions.get(0).getType());
+    }
+
+    @Test
+    public void testSuggestNamesAndAuthors(){
+        List<Suggestion> suggestions = suggester.suggest("j", 10);
+        assertEquals(List.of("Jane Doe", "John Doe"), texts(suggestions));
+        assertEquals(Suggestion.Type.AUTHOR, suggestions.get(0).getType());
+        assertEquals(List.of("Chetan Bhatt"), texts(suggester.suggest("chetan  b", 10)));
+    }
+
+    @Test
+    public void testSuggestIsLimited(){
+        assertEquals(List.of("Learning Java"), texts(suggester.suggest("learn", 1)));
+        assertTrue(suggester.suggest("x", 10).isEmpty());
+    }
+
+    @Test
+    public void testRemove(){
+        suggester.remove(javaByBhatt);
+        suggester.remove(javaByDoe);
+        assertEquals(List.of("Learn", "Learning Python"), texts(suggester.suggest("learn", 10)));
+        assertEquals(List.of("Chetan Bhatt"), texts(suggester.suggest("c", 10)));
+        suggester.remove(python);
+        assertTrue(suggester.suggest("learni", 10).isEmpty());
+    }
+
+    @Test
+    public void testRemoveBookSharingTerms(){
+        Book javaByBhattAgain = new Book("Learning Java", "Chetan Bhatt", Category.POETRY);
+        suggester.add(javaByBhattAgain);
+        suggester.remove(javaByBhatt);
+        List<Suggestion> suggestions = suggester.suggest("learning j", 10);
+        assertEquals(List.of("Learning Java"), texts(suggestions));
+        assertEquals(2, suggestions.get(0).getCount());
+        assertEquals(2, suggester.suggest("chetan", 10).get(0).getCount());
+        suggester.remove(javaByDoe);
+        suggester.remove(javaByBhattAgain);
+        assertTrue(suggester.suggest("learning j", 10).isEmpty());
+        assertEquals(1, suggester.suggest("chetan", 10).get(0).getCount());
+    }
+
+    @Test
+    public void testRemoveBookNotAddedWithinBudget(){
+        BookSuggester suggester = new BookSuggester(3, 64);
+        Book first = new Book("ab", "cd", Category.TECHNICAL);
+        Book skipped = new Book("xyz", "cd", Category.TECHNICAL);
+        suggester.add(first);
+        // the name of the book needs more nodes than left, its author is shared with the first book
+        suggester.add(skipped);
+        assertTrue(suggester.suggest("x", 10).isEmpty());
+        suggester.remove(first);
+        Book second = new Book("xyz", "ef", Category.TECHNICAL);
+        suggester.add(second);
+        assertEquals(1, suggester.suggest("x", 10).get(0).getCount());
+        // the book only removes the author it added, the name being the one of the second book
+        suggester.remove(skipped);
+        assertEquals(List.of("xyz"), texts(suggester.suggest("x", 10)));
+        assertEquals(1, suggester.suggest("x", 10).get(0).getCount());
+        assertTrue(suggester.suggest("c", 10).isEmpty());
+    }
+
+    @Test
+    public void testRemovePrunesNodes(){
+        PrefixTrie trie = new PrefixTrie(10, 100);
+        trie.add("ab", "ab");
+        trie.add("abc", "abc");
+        assertEquals(3, trie.nodeCount());
+        trie.remove("abc");
+        assertEquals(2, trie.nodeCount());
+        assertEquals(1, trie.termCount());
+        assertEquals("ab", trie.top("a", 10).get(0).getText());
+    }
+
+    @Test
+    public void testMemoryBudget(){
+        PrefixTrie trie = new PrefixTrie(10, 5);
+        assertTrue(trie.add("abcd", "abcd"));
+        assertTrue(trie.add("abx", "abx"));
+        assertEquals(false, trie.add("xyz", "xyz"));
+        assertEquals(5, trie.nodeCount());
+        assertEquals(2, trie.top("ab", 10).size());
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getText).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.bookstore.search;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.rest.Category;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BookTextIndexTest {
+
+    private BookTextIndex textIndex;
+
+    private Book java = new Book("Learning Java", "Chetan Bhatt", Category.TECHNICAL);
+
+    private Book javascript = new Book("JavaScript Patterns", "Stoyan Stefanov", Category.TECHNICAL);
+
+    private Book poems = new Book("Poems", "Java Poet", Category.POETRY);
+
+    @Before
+    public void setup(){
+        textIndex = new BookTextIndex();
+        textIndex.add(java);
+        textIndex.add(javascript);
+        textIndex.add(poems);
+    }
+
+    @Test
+    public void testTokenize(){
+        assertEquals(List.of("learning", "java", "2nd", "ed"), BookTextIndex.tokenize("Learning Java, 2nd Ed."));
+        assertTrue(BookTextIndex.tokenize("  ").isEmpty());
+    }
+
+    @Test
+    public void testSearchByToken(){
+        Page<BookHit> hits = textIndex.search("bhatt", PageRequest.of(0, 10));
+        assertEquals(1, hits.getTotalElements());
+        assertEquals(java.getId(), hits.getContent().get(0).getBook().getId());
+    }
+
+    @Test
+    public void testSearchBySubstringIsRankedBelowToken(){
+        Page<BookHit> hits = textIndex.search("JAVA", PageRequest.of(0, 10));
+        assertEquals(3, hits.getTotalElements());
+        assertEquals(java.getId(), hits.getContent().get(0).getBook().getId());
+        // equal scores are ordered by name
+        assertEquals(javascript.getId(), hits.getContent().get(1).getBook().getId());
+        assertEquals(poems.getId(), hits.getContent().get(2).getBook().getId());
+    }
+
+    @Test
+    public void testSearchMatchesAllTokens(){
+        Page<BookHit> hits = textIndex.search("java patt", PageRequest.of(0, 10));
+        assertEquals(1, hits.getTotalElements());
+        assertEquals(javascript.getId(), hits.getContent().get(0).getBook().getId());
+    }
+
+    @Test
+    public void testSearchIsPaged(){
+        Page<BookHit> hits = textIndex.search("java", PageRequest.of(1, 2));
+        assertEquals(3, hits.getTotalElements());
+        assertEquals(2, hits.getTotalPages());
+        assertEquals(1, hits.getNumberOfElements());
+    }
+
+    @Test
+    public void testRemove(){
+        textIndex.remove(java);
+        assertEquals(0, textIndex.search("bhatt", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(2, textIndex.search("java", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(2, textIndex.size());
+    }
+
+    @Test
+    public void testPagesFollowTheRanking(){
+        for (int i = 0; i < 50; i++) {
+            textIndex.add(new Book("Java " + (char) ('a' + i % 26) + i, i % 3 == 0 ? "Java Team" : "Someone", Category.TECHNICAL));
+        }
+        List<BookHit> all = textIndex.search("java", PageRequest.of(0, 100)).getContent();
+        assertEquals(53, all.size());
+        List<BookHit> paged = new ArrayList<>();
+        for (int page = 0; page < 6; page++) {
+            Page<BookHit> hits = textIndex.search("java", PageRequest.of(page, 10));
+            assertEquals(53, hits.getTotalElements());
+            paged.addAll(hits.getContent());
+        }
+        assertEquals(ids(all), ids(paged));
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getScore() >= all.get(i).getScore());
+        }
+    }
+
+    @Test
+    public void testSearchAfterCompaction(){
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BookTextIndex.COMPACTION_THRESHOLD * 2; i++) {
+            Book book = new Book("Title" + i, "Writer", Category.TECHNICAL);
+            books.add(book);
+            textIndex.add(book);
+        }
+        for (int i = 0; i < BookTextIndex.COMPACTION_THRESHOLD * 2; i += 2) {
+            textIndex.remove(books.get(i));
+        }
+        assertEquals(BookTextIndex.COMPACTION_THRESHOLD + 3, textIndex.size());
+        assertNull(textIndex.get(books.get(0).getId()));
+        assertEquals(books.get(1).getId(), textIndex.get(books.get(1).getId()).getId());
+        assertEquals(BookTextIndex.COMPACTION_THRESHOLD, textIndex.search("writer", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(1, textIndex.search("title2047", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(0, textIndex.search("title2046", PageRequest.of(0, 10)).getTotalElements());
+        Book added = new Book("Title added", "Writer", Category.TECHNICAL);
+        textIndex.add(added);
+        assertEquals(added.getId(), textIndex.search("added", PageRequest.of(0, 10)).getContent().get(0).getBook().getId());
+        assertEquals(3, textIndex.search("java", PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    private static List<String> ids(List<BookHit> hits){
+        return hits.stream().map(hit -> hit.getBook().getId()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.util.SearchQueryParser;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.bookstore.configuration.CacheConfig.SEARCH_QUERIES_CACHE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = SearchQueryCompilerTest.Config.class)
+public class SearchQueryCompilerTest {
+
+    @Configuration
+    @EnableCaching
+    static class Config {
+        @Bean
+        public CacheManager cacheManager() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager(SEARCH_QUERIES_CACHE);
+            cacheManager.setCacheSpecification("maximumSize=100,recordStats");
+            return cacheManager;
+        }
+
+        @Bean
+        public SearchQueryCompiler searchQueryCompiler() {
+            return new SearchQueryCompiler(cacheManager());
+        }
+    }
+
+    @Autowired
+    private SearchQueryCompiler searchQueryCompiler;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Before
+    public void setup(){
+        cacheManager.getCache(SEARCH_QUERIES_CACHE).clear();
+    }
+
+    @Test
+    public void testCompiledQueryIsCachedByShape(){
+        searchQueryCompiler.compile("name:Learn* AND author:Author");
+        searchQueryCompiler.compile(" name:Java*   AND author:\"Chetan Bhatt\" ");
+        searchQueryCompiler.compile("name:Learn* OR author:Author");
+
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache(SEARCH_QUERIES_CACHE);
+        CacheStats stats = cache.getNativeCache().stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(2, stats.missCount());
+        assertEquals(2, cache.getNativeCache().estimatedSize());
+        assertNotNull(cache.get("name STARTS_WITH ? AND author EQUALITY ?"));
+    }
+
+    @Test
+    public void testCacheHitDoesNotParseQuery(){
+        AtomicInteger parses = new AtomicInteger();
+        SearchQueryCompiler compiler = new SearchQueryCompiler(cacheManager, query -> {
+            parses.incrementAndGet();
+            return SearchQueryParser.parse(query);
+        });
+        compiler.compile("name:Learn* AND author:Author");
+        compiler.compile("name:Java* AND author:\"Chetan Bhatt\"");
+        compiler.compile("name:DSA* AND author:Other");
+        assertEquals(1, parses.get());
+    }
+
+    @Test(expected = BookStoreException.class)
+    public void testInvalidQueryIsRejected(){
+        searchQueryCompiler.compile("isbn:123");
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.bookstore.service.impl;
+
+import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BulkAddResult;
+import com.example.bookstore.model.IngestResult;
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.service.BookService;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.example.bookstore.exception.ErrorCode.BOOK_NOT_FOUND;
+import static com.example.bookstore.exception.ErrorCode.INGEST_QUEUE_FULL;
+import static com.example.bookstore.exception.ErrorCode.INGEST_STOPPED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BookIngestServiceImplTest {
+
+    private BookService bookService = Mockito.mock(BookService.class);
+
+    private BookIngestServiceImpl bookIngestService;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (bookIngestService != null) {
+            bookIngestService.destroy();
+        }
+    }
+
+    @Test
+    public void testSubmitWritesFullBatch() throws InterruptedException {
+        when(bookService.addAll(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+        bookIngestService = newService(true, 100, 2, 60000);
+        Book book = new Book("Book1", "Author", Category.TECHNICAL);
+        Book book2 = new Book("Book2", "Author", Category.POETRY);
+        assertEquals(book.getId(), bookIngestService.submit(book));
+        bookIngestService.submit(book2);
+        assertEquals(IngestResult.Status.CREATED, awaitResult(book2.getId()).getStatus());
+        assertEquals(IngestResult.Status.CREATED, bookIngestService.getResult(book.getId()).getStatus());
+        verify(bookService).addAll(List.of(book, book2));
+    }
+
+    @Test
+    public void testSubmitWritesAfterMaxLatency() throws InterruptedException {
+        when(bookService.addAll(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+        bookIngestService = newService(true, 100, 100, 10);
+        Book book = new Book("Book1", "Author", Category.TECHNICAL);
+        bookIngestService.submit(book);
+        assertEquals(IngestResult.Status.CREATED, awaitResult(book.getId()).getStatus());
+        verify(bookService).addAll(List.of(book));
+    }
+
+    @Test
+    public void testSubmitReportsOutcomePerBook() throws InterruptedException {
+        Book book = new Book("Book1", "Author", Category.TECHNICAL);
+        Book duplicate = new Book("Book1", "Author", Category.TECHNICAL);
+        when(bookService.addAll(anyList())).thenReturn(List.of(BulkAddResult.created(book), BulkAddResult.duplicate(duplicate)));
+        bookIngestService = newService(true, 100, 2, 60000);
+        bookIngestService.submit(book);
+        bookIngestService.submit(duplicate);
+        assertEquals(IngestResult.Status.DUPLICATE, awaitResult(duplicate.getId()).getStatus());
+        assertEquals(IngestResult.Status.CREATED, bookIngestService.getResult(book.getId()).getStatus());
+    }
+
+    @Test
+    public void testSubmitWithFullQueue() throws InterruptedException {
+        when(bookService.addAll(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+        bookIngestService = newService(true, 1, 10, 60000);
+        Book book = new Book("Book1", "Author", Category.TECHNICAL);
+        bookIngestService.submit(book);
+        try {
+            bookIngestService.submit(new Book("Book2", "Author", Category.TECHNICAL));
+            fail("Expected the queue to be full");
+        } catch (BookStoreException e) {
+            assertEquals(INGEST_QUEUE_FULL, e.getErrorCode());
+        }
+        assertEquals(IngestResult.Status.PENDING, bookIngestService.getResult(book.getId()).getStatus());
+        // the queued books are written on shutdown
+        bookIngestService.destroy();
+        assertEquals(IngestResult.Status.CREATED, bookIngestService.getResult(book.getId()).getStatus());
+        bookIngestService = null;
+    }
+
+    @Test
+    public void testEveryAcceptedBookResolvesWhileQueued() {
+        when(bookService.addAll(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+        // a cache keeping nothing, as a cache evicting under a burst would
+        bookIngestService = newService(new NoOpCacheManager(), 1000, 2000, 60000);
+        List<String> ids = new ArrayList<>();
+        try {
+            while (true) {
+                ids.add(bookIngestService.submit(new Book("Book" + ids.size(), "Author", Category.TECHNICAL)));
+            }
+        } catch (BookStoreException e) {
+            assertEquals(INGEST_QUEUE_FULL, e.getErrorCode());
+        }
+        assertEquals(1000, ids.size());
+        for (String id : ids) {
+            assertEquals(IngestResult.Status.PENDING, bookIngestService.getResult(id).getStatus());
+        }
+    }
+
+    @Test
+    public void testSubmitWithFailedBatch() throws InterruptedException {
+        when(bookService.addAll(anyList())).thenThrow(new IllegalStateException("db is down"));
+        bookIngestService = newService(true, 100, 1, 60000);
+        Book book = new Book("Book1", "Author", Category.TECHNICAL);
+        bookIngestService.submit(book);
+        IngestResult result = awaitResult(book.getId());
+        assertEquals(IngestResult.Status.FAILED, result.getStatus());
+        assertEquals("db is down", result.getMessage());
+        verify(bookService, times(1)).addAll(anyList());
+    }
+
+    @Test
+    public void testGetResultNotFound() {
+        bookIngestService = newService(true, 100, 10, 10);
+        try {
+            bookIngestService.getResult("unknown");
+            fail("Expected the result not to be found");
+        } catch (BookStoreException e) {
+            assertEquals(BOOK_NOT_FOUND, e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void testSubmitWhenDisabled() {
+        bookIngestService = newService(false, 100, 10, 10);
+        assertStopped();
+    }
+
+    @Test
+    public void testSubmitAfterDestroy() throws InterruptedException {
+        when(bookService.addAll(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+        bookIngestService = newService(true, 100, 10, 60000);
+        Book book = new Book("Book1", "Author", Category.TECHNICAL);
+        bookIngestService.submit(book);
+        bookIngestService.destroy();
+        assertEquals(IngestResult.Status.CREATED, bookIngestService.getResult(book.getId()).getStatus());
+        assertStopped();
+        bookIngestService = null;
+    }
+
+    @Test
+    public void testSubmitDuringDestroy() throws InterruptedException {
+        when(bookService.addAll(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+        bookIngestService = newService(true, 100000, 100, 1);
+        List<String> accepted = Collections.synchronizedList(new ArrayList<>());
+        Thread producer = new Thread(() -> {
+            try {
+                while (true) {
+                    accepted.add(bookIngestService.submit(new Book("Book" + accepted.size(), "Author", Category.TECHNICAL)));
+                }
+            } catch (BookStoreException e) {
+                // the queue is full or closed
+            }
+        });
+        producer.start();
+        Thread.sleep(20);
+        bookIngestService.destroy();
+        producer.join();
+        for (String id : accepted) {
+            assertEquals(IngestResult.Status.CREATED, bookIngestService.getResult(id).getStatus());
+        }
+        bookIngestService = null;
+    }
+
+    private BookIngestServiceImpl newService(boolean enabled, int capacity, int maxBatchSize, long maxLatencyMillis) {
+        return new BookIngestServiceImpl(bookService, new ConcurrentMapCacheManager(), enabled, capacity, maxBatchSize,
+                maxLatencyMillis);
+    }
+
+    private BookIngestServiceImpl newService(CacheManager cacheManager, int capacity, int maxBatchSize, long maxLatencyMillis) {
+        return new BookIngestServiceImpl(bookService, cacheManager, true, capacity, maxBatchSize, maxLatencyMillis);
+    }
+
+    private void assertStopped() {
+        try {
+            bookIngestService.submit(new Book("Book2", "Author", Category.TECHNICAL));
+            fail("Expected the ingestion to be stopped");
+        } catch (BookStoreException e) {
+            assertEquals(INGEST_STOPPED, e.getErrorCode());
+        }
+    }
+
+    private IngestResult awaitResult(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        IngestResult result = bookIngestService.getResult(id);
+        while (result.getStatus() == IngestResult.Status.PENDING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+            result = bookIngestService.getResult(id);
+        }
+        return result;
+    }
+
+    private static List<BulkAddResult> created(List<Book> books) {
+        return books.stream().map(BulkAddResult::created).collect(Collectors.toCollection(ArrayList::new));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.bookstore.service.impl;
+
+import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.exception.ErrorCode;
+import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookFacets;
+import com.example.bookstore.repository.BookRepository;
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.search.BookFacetCounter;
+import com.example.bookstore.search.BookIndexer;
+import com.example.bookstore.search.BookSuggester;
+import com.example.bookstore.search.BookTextIndex;
+import com.example.bookstore.service.BookSearchService;
+import com.example.bookstore.util.SearchQueryParser;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class BookSearchServiceImplTest {
+
+    private BookRepository bookRepository = Mockito.mock(BookRepository.class);
+
+    private BookIndexer indexer = Mockito.mock(BookIndexer.class);
+
+    private BookFacetCounter facetCounter = new BookFacetCounter();
+
+    private BookTextIndex textIndex = new BookTextIndex();
+
+    private BookSuggester suggester = new BookSuggester(1000, 64);
+
+    private BookSearchService bookSearchService = new BookSearchServiceImpl(textIndex, suggester, facetCounter, bookRepository, indexer);
+
+    @Test
+    public void testGetFacetsFromCounters(){
+        facetCounter.add(new Book("Book", "Author", Category.TECHNICAL));
+        facetCounter.onLoaded();
+        BookFacets facets = bookSearchService.getFacets(null, 10);
+        assertEquals(1, facets.getTotal());
+        assertEquals(Category.values().length, facets.getCategories().size());
+        assertEquals("Author", facets.getAuthors().get(0).getValue());
+        verify(bookRepository, never()).countBy(any(), any(), any());
+        verify(indexer, never()).startLoading();
+    }
+
+    @Test
+    public void testGetFacetsByGroupByWhileCountersLoad(){
+        when(bookRepository.countBy(isNull(), eq("category"), isNull())).thenReturn(Map.of(Category.POETRY.getValue(), 2L));
+        when(bookRepository.countBy(isNull(), eq("author"), anyInt())).thenReturn(Map.of("Author", 2L));
+        BookFacets facets = bookSearchService.getFacets(null, 10);
+        assertEquals(2, facets.getTotal());
+        assertEquals(2, facets.getAuthors().get(0).getCount());
+        verify(indexer).startLoading();
+    }
+
+    @Test
+    public void testSearchOnceIndexesAreLoaded(){
+        Book book = new Book("Learning Java", "Author", Category.TECHNICAL);
+        textIndex.add(book);
+        suggester.add(book);
+        when(indexer.isLoaded()).thenReturn(true);
+        assertEquals(1, bookSearchService.search("java", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(1, bookSearchService.suggest("lea", 10).size());
+        verify(indexer, never()).startLoading();
+    }
+
+    @Test
+    public void testSearchWhileIndexesLoad(){
+        try {
+            bookSearchService.search("java", PageRequest.of(0, 10));
+            fail();
+        } catch (BookStoreException e) {
+            assertEquals(ErrorCode.INDEX_LOADING, e.getErrorCode());
+        }
+        try {
+            bookSearchService.suggest("lea", 10);
+            fail();
+        } catch (BookStoreException e) {
+            assertEquals(ErrorCode.INDEX_LOADING, e.getErrorCode());
+        }
+        verify(indexer, times(2)).startLoading();
+    }
+
+    @Test
+    public void testGetFacetsByGroupByDoesNotLoadIndexes(){
+        Specification<Book> specification = SearchQueryParser.parse("name:Learn*").toSpecification();
+        when(bookRepository.countBy(any(), any(), any())).thenReturn(Map.of());
+        bookSearchService.getFacets(specification, 10);
+        verify(indexer, never()).startLoading();
+    }
+
+    @Test
+    public void testGetFacetsByGroupBy(){
+        Specification<Book> specification = SearchQueryParser.parse("name:Learn*").toSpecification();
+        Map<String, Long> categories = new LinkedHashMap<>();
+        categories.put(Category.POETRY.getValue(), 2L);
+        categories.put(Category.TECHNICAL.getValue(), 1L);
+        when(bookRepository.countBy(eq(specification), eq("category"), isNull())).thenReturn(categories);
+        when(bookRepository.countBy(eq(specification), eq("author"), anyInt())).thenReturn(Map.of("Author", 3L));
+        BookFacets facets = bookSearchService.getFacets(specification, 10);
+        assertEquals(3, facets.getTotal());
+        assertEquals(Category.TECHNICAL.getValue(), facets.getCategories().get(0).getValue());
+        assertEquals(1, facets.getCategories().get(0).getCount());
+        assertEquals(3, facets.getAuthors().get(0).getCount());
+    }
+
+    @Test(expected = BookStoreException.class)
+    public void testGetFacetsWithInvalidTop(){
+        bookSearchService.getFacets(null, BookSearchServiceImpl.MAX_FACET_TOP + 1);
+    }
+
+    @Test(expected = BookStoreException.class)
+    public void testSuggestWithInvalidLimit(){
+        bookSearchService.suggest("prefix", 0);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.bookstore.service.impl;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.repository.BookRepository;
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.search.BookFacetCounter;
+import com.example.bookstore.search.BookIndexer;
+import com.example.bookstore.search.BookTextIndex;
+import com.example.bookstore.service.BookService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.example.bookstore.configuration.CacheConfig.BOOKS_CACHE;
+import static com.example.bookstore.configuration.CacheConfig.IDEMPOTENCY_KEYS_CACHE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.*;
+
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = BookServiceImplCacheTest.Config.class)
+public class BookServiceImplCacheTest {
+
+    @Configuration
+    @EnableCaching
+    static class Config {
+        @Bean
+        public BookRepository bookRepository() {
+            return Mockito.mock(BookRepository.class);
+        }
+
+        @Bean
+        public CacheManager cacheManager() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager(BOOKS_CACHE, IDEMPOTENCY_KEYS_CACHE);
+            cacheManager.setCacheSpecification("maximumSize=100,recordStats");
+            return cacheManager;
+        }
+
+        @Bean
+        public BookService bookService(BookRepository bookRepository, ApplicationEventPublisher eventPublisher, CacheManager cacheManager) {
+            return new BookServiceImpl(bookRepository, eventPublisher, new BookFacetCounter(), cacheManager);
+        }
+
+        @Bean
+        public BookTextIndex bookTextIndex() {
+            return new BookTextIndex();
+        }
+
+        @Bean
+        public BookIndexer bookIndexer(BookService bookService, BookTextIndex bookTextIndex) {
+            return new BookIndexer(bookService, bookTextIndex, List.of(bookTextIndex), false);
+        }
+    }
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private BookIndexer bookIndexer;
+
+    @Autowired
+    private BookTextIndex bookTextIndex;
+
+    @Before
+    public void setup(){
+        reset(bookRepository);
+        cacheManager.getCache(BOOKS_CACHE).clear();
+    }
+
+    @Test
+    public void testGetBookIsReadThroughCache(){
+        Book book = new Book("Name", "Author", Category.TECHNICAL);
+        when(bookRepository.findById(book.getUuid())).thenReturn(Optional.of(book));
+        bookService.get(book.getId());
+        Book cachedBook = bookService.get(book.getId());
+        assertEquals(book.getId(), cachedBook.getId());
+        verify(bookRepository, times(1)).findById(book.getUuid());
+    }
+
+    @Test
+    public void testAddBookPopulatesCache(){
+        Book book = new Book("Name", "Author", Category.TECHNICAL);
+        bookService.add(book);
+        assertNotNull(bookService.get(book.getId()));
+        verify(bookRepository, never()).findById(book.getUuid());
+    }
+
+    @Test
+    public void testDeleteBookEvictsCache(){
+        Book book = new Book("Name", "Author", Category.TECHNICAL);
+        when(bookRepository.findById(book.getUuid())).thenReturn(Optional.of(book));
+        when(bookRepository.deleteRowById(book.getUuid())).thenReturn(1);
+        bookService.get(book.getId());
+        bookService.delete(book.getId());
+        bookService.get(book.getId());
+        verify(bookRepository, times(2)).findById(book.getUuid());
+    }
+
+    @Test
+    public void testDeleteBookWithUppercaseIdClearsCacheAndIndexes(){
+        Book book = new Book("Name", "Author", Category.TECHNICAL);
+        when(bookRepository.findById(book.getUuid())).thenReturn(Optional.of(book));
+        when(bookRepository.deleteRowById(book.getUuid())).thenReturn(1);
+        when(bookRepository.streamAll(any())).thenAnswer(invocation -> Stream.of(book));
+        bookIndexer.ensureLoaded();
+        assertNotNull(bookTextIndex.get(book.getId()));
+
+        String uppercaseId = book.getId().toUpperCase();
+        bookService.get(book.getId());
+        bookService.get(uppercaseId);
+        verify(bookRepository, times(1)).findById(book.getUuid());
+
+        bookService.delete(uppercaseId);
+        assertNull(cacheManager.getCache(BOOKS_CACHE).get(book.getId()));
+        assertNull(bookTextIndex.get(book.getId()));
+    }
+}
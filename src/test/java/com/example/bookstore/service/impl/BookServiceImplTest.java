@@ -2,39 +2,60 @@ package com.example.bookstore.service.impl;
 
 import com.example.bookstore.exception.BookStoreException;
 import com.example.bookstore.model.Book;
+import com.example.bookstore.model.BookRow;
+import com.example.bookstore.model.BookView;
+import com.example.bookstore.model.BulkAddResult;
 import com.example.bookstore.repository.BookRepository;
 import com.example.bookstore.rest.Category;
+import com.example.bookstore.search.BookFacetCounter;
 import com.example.bookstore.service.BookService;
+import com.example.bookstore.util.BookIds;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
+import static com.example.bookstore.exception.ErrorCode.BOOK_ALREADY_EXIST;
+import static com.example.bookstore.exception.ErrorCode.VALIDATION_ERROR;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class BookServiceImplTest {
 
     private BookRepository bookRepository = Mockito.mock(BookRepository.class);
 
-    private BookService bookService = new BookServiceImpl(bookRepository);
+    private BookFacetCounter facetCounter = new BookFacetCounter();
+
+    private BookService bookService = new BookServiceImpl(bookRepository, Mockito.mock(ApplicationEventPublisher.class), facetCounter,
+            new ConcurrentMapCacheManager());
 
     @Test
     public void testAddBook(){
         String name = "Learn DSA";
         String author = "Chetan Bhatt";
         Book book = new Book(name, author, Category.TECHNICAL);
-        when(bookRepository.findByNameAndAuthor(name, author)).thenReturn(Optional.ofNullable(null));
-        when(bookRepository.save(any(Book.class))).thenReturn(book);
         Book savedBook = bookService.add(book);
         assertNotNull(savedBook);
         assertEquals(book.getId(), savedBook.getId());
+        verify(bookRepository).insertAll(List.of(book));
+        verify(bookRepository, never()).findByNameAndAuthor(name, author);
     }
 
     @Test(expected = BookStoreException.class)
@@ -42,10 +63,47 @@ public class BookServiceImplTest {
         String name = "Learn DSA";
         String author = "Chetan Bhatt";
         Book book = new Book(name, author, Category.TECHNICAL);
-        when(bookRepository.findByNameAndAuthor(name, author)).thenReturn(Optional.ofNullable(book));
+        doThrow(new DataIntegrityViolationException("unique constraint")).when(bookRepository).insertAll(anyList());
         bookService.add(book);
     }
 
+    @Test
+    public void testAddBookRetriedWithIdempotencyKey(){
+        Book book = new Book("Learn DSA", "Chetan Bhatt", Category.TECHNICAL);
+        Book retriedBook = new Book("Learn DSA", "Chetan Bhatt", Category.TECHNICAL);
+        Book savedBook = bookService.add(book, "key");
+        Book retriedSavedBook = bookService.add(retriedBook, "key");
+        assertEquals(book.getId(), savedBook.getId());
+        assertEquals(book.getId(), retriedSavedBook.getId());
+        verify(bookRepository, times(1)).insertAll(anyList());
+    }
+
+    @Test
+    public void testAddBookAlreadyExistIsNotRememberedByIdempotencyKey(){
+        Book book = new Book("Learn DSA", "Chetan Bhatt", Category.TECHNICAL);
+        doThrow(new DataIntegrityViolationException("unique constraint")).doNothing().when(bookRepository).insertAll(anyList());
+        try {
+            bookService.add(book, "key");
+            fail("Expected the book to already exist");
+        } catch (BookStoreException e) {
+            assertEquals(BOOK_ALREADY_EXIST, e.getErrorCode());
+        }
+        assertEquals(book.getId(), bookService.add(book, "key").getId());
+        verify(bookRepository, times(2)).insertAll(anyList());
+    }
+
+    @Test
+    public void testAddBookWithIdempotencyKeyOfAnotherBook(){
+        bookService.add(new Book("Learn DSA", "Chetan Bhatt", Category.TECHNICAL), "key");
+        try {
+            bookService.add(new Book("Learn Java", "Chetan Bhatt", Category.TECHNICAL), "key");
+            fail("Expected the idempotency key to be rejected");
+        } catch (BookStoreException e) {
+            assertEquals(VALIDATION_ERROR, e.getErrorCode());
+        }
+        verify(bookRepository, times(1)).insertAll(anyList());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testAddNullBook(){
         bookService.add(null);
@@ -65,6 +123,25 @@ public class BookServiceImplTest {
         bookService.add(book);
     }
 
+    @Test
+    public void testAddBooks(){
+        Book newBook = new Book("Book1", "Author1", Category.TECHNICAL);
+        Book existingBook = new Book("Book2", "Author1", Category.TECHNICAL);
+        Book repeatedBook = new Book("Book1", "Author1", Category.POETRY);
+        Book invalidBook = new Book("Book3", null, Category.TECHNICAL);
+        when(bookRepository.findByNameAndAuthorOf(anyCollection())).thenReturn(List.of(existingBook));
+        List<BulkAddResult> results = bookService.addAll(Arrays.asList(newBook, existingBook, repeatedBook, invalidBook, null));
+        assertEquals(5, results.size());
+        assertEquals(BulkAddResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(newBook.getId(), results.get(0).getId());
+        assertEquals(BulkAddResult.Status.DUPLICATE, results.get(1).getStatus());
+        assertEquals(BulkAddResult.Status.DUPLICATE, results.get(2).getStatus());
+        assertEquals(BulkAddResult.Status.INVALID, results.get(3).getStatus());
+        assertEquals(BulkAddResult.Status.INVALID, results.get(4).getStatus());
+        verify(bookRepository, times(1)).findByNameAndAuthorOf(List.of(newBook, existingBook));
+        verify(bookRepository, times(1)).insertAll(List.of(newBook));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testDeleteBookIdIsNull(){
         bookService.delete(null);
@@ -72,23 +149,55 @@ public class BookServiceImplTest {
 
     @Test
     public void testDeleteBookId(){
-        String id = "id";
-        when(bookRepository.existsById(id)).thenReturn(true);
-        bookService.delete(id);
-        verify(bookRepository, times(1)).deleteById(id);
+        UUID id = BookIds.next();
+        when(bookRepository.deleteRowById(id)).thenReturn(1);
+        bookService.delete(id.toString());
+        verify(bookRepository, times(1)).deleteRowById(id);
+        verify(bookRepository, never()).existsById(id);
     }
 
     @Test(expected = BookStoreException.class)
     public void testDeleteBookIdAlreadyExist(){
-        String id = "id";
-        when(bookRepository.existsById(id)).thenReturn(false);
-        bookService.delete(id);
+        UUID id = BookIds.next();
+        when(bookRepository.deleteRowById(id)).thenReturn(0);
+        bookService.delete(id.toString());
+    }
+
+    @Test(expected = BookStoreException.class)
+    public void testDeleteBookMalformedId(){
+        bookService.delete("id");
+    }
+
+    @Test
+    public void testDeleteBooksByIds(){
+        UUID id1 = BookIds.next();
+        UUID id2 = BookIds.next();
+        when(bookRepository.deleteRowsByIdIn(anyCollection())).thenReturn(2);
+        long deleted = bookService.deleteAll(Arrays.asList(id1.toString(), id2.toString(), id1.toString(), null, "id3"));
+        assertEquals(2, deleted);
+        verify(bookRepository, times(1)).deleteRowsByIdIn(List.of(id1, id2));
+    }
+
+    @Test
+    public void testDeleteBooksByFilterInBatches(){
+        when(bookRepository.findIds(any(), anyInt()))
+                .thenReturn(List.of(BookIds.next(), BookIds.next()), List.of(BookIds.next()), List.of());
+        when(bookRepository.deleteRowsByIdIn(anyCollection())).thenReturn(2, 1);
+        long deleted = bookService.deleteAll("Author", null);
+        assertEquals(3, deleted);
+        verify(bookRepository, times(3)).findIds(any(), eq(BookServiceImpl.BULK_CHUNK_SIZE));
+        verify(bookRepository, times(2)).deleteRowsByIdIn(anyCollection());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeleteAllBooksWithoutFilter(){
+        bookService.deleteAll(null, null);
     }
 
     @Test
     public void testGetBookById(){
         Book book = new Book("Name", "Author", Category.TECHNICAL);
-        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        when(bookRepository.findById(book.getUuid())).thenReturn(Optional.of(book));
         Book returnedBook = bookService.get(book.getId());
         assertNotNull(returnedBook);
         assertEquals(book.getId(), returnedBook.getId());
@@ -96,7 +205,13 @@ public class BookServiceImplTest {
 
     @Test(expected = BookStoreException.class)
     public void testGetBookByIdNotFound(){
-        when(bookRepository.findById("id")).thenReturn(Optional.ofNullable(null));
+        UUID id = BookIds.next();
+        when(bookRepository.findById(id)).thenReturn(Optional.ofNullable(null));
+        bookService.get(id.toString());
+    }
+
+    @Test(expected = BookStoreException.class)
+    public void testGetBookByMalformedId(){
         bookService.get("id");
     }
 
@@ -112,15 +227,30 @@ public class BookServiceImplTest {
 
     @Test
     public void testGetBooksWithAuthorAndCategory(){
-        List<Book> books = List.of(
-                                    new Book("Book1", "Author1", Category.TECHNICAL),
-                                    new Book("Book2", "Author1", Category.TECHNICAL)
+        List<BookRow> books = List.of(
+                                    new BookRow(BookIds.next(), "Book1", "Author1", Category.TECHNICAL),
+                                    new BookRow(BookIds.next(), "Book2", "Author1", Category.TECHNICAL)
                                     );
-        Page<Book> page = new PageImpl<>(books);
+        Page<BookRow> page = new PageImpl<>(books);
         PageRequest pageable = PageRequest.of(0, 3);
-        when(bookRepository.findByAuthorAndCategory("Author1", Category.TECHNICAL.getValue(), pageable)).thenReturn(page);
-        Page<Book> returnedPage = bookService.getBooks("Author1", Category.TECHNICAL.getValue(), pageable);
+        when(bookRepository.findRowsByAuthorAndCategory("Author1", Category.TECHNICAL, pageable)).thenReturn(page);
+        Page<BookView> returnedPage = bookService.getBooks("Author1", Category.TECHNICAL.getValue(), pageable);
         assertNotNull(returnedPage);
         assertEquals(2, returnedPage.getTotalElements());
     }
+
+    @Test
+    public void testGetBooksWithUnknownCategory(){
+        Page<BookView> returnedPage = bookService.getBooks(null, "Unknown", PageRequest.of(0, 3));
+        assertEquals(0, returnedPage.getTotalElements());
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    public void testCountBooksFromCounters(){
+        facetCounter.add(new Book("Book1", "Author1", Category.TECHNICAL));
+        facetCounter.onLoaded();
+        assertEquals(1, bookService.countBooks("Author1", null));
+        verify(bookRepository, never()).count(any(Specification.class));
+    }
 }
@@ -0,0 +1,62 @@
+package com.example.bookstore.service.impl;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.repository.BookRepository;
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.service.BookService;
+import com.example.bookstore.snapshot.BookSnapshotWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+public class BookSnapshotServiceImplTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private BookRepository bookRepository = Mockito.mock(BookRepository.class);
+
+    private BookSnapshotServiceImpl bookSnapshotService = new BookSnapshotServiceImpl(Mockito.mock(BookService.class),
+            bookRepository, "snapshots", "");
+
+    @Test
+    public void testGetServesBooksNotInsertedYet() throws IOException {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BookSnapshotServiceImpl.LOAD_CHUNK_SIZE + 1; i++) {
+            books.add(new Book("Book" + i, "Author", Category.TECHNICAL));
+        }
+        Path path = folder.newFile().toPath();
+        try (BookSnapshotWriter writer = new BookSnapshotWriter(path)) {
+            for (Book book : books) {
+                writer.write(book);
+            }
+        }
+        String last = books.get(books.size() - 1).getId();
+        List<Boolean> served = new ArrayList<>();
+        doAnswer(invocation -> {
+            served.add(bookSnapshotService.get(last).isPresent());
+            return null;
+        }).when(bookRepository).insertAll(anyList());
+
+        assertEquals(books.size(), bookSnapshotService.load(path));
+        assertEquals(List.of(true, true), served);
+        assertFalse(bookSnapshotService.get(last).isPresent());
+    }
+
+    @Test
+    public void testGetWithoutLoad() {
+        assertFalse(bookSnapshotService.get("abc").isPresent());
+        assertFalse(bookSnapshotService.get(new Book("Book1", "Author", Category.TECHNICAL).getId()).isPresent());
+    }
+}
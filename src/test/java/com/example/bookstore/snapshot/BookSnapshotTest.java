@@ -0,0 +1,108 @@
+package com.example.bookstore.snapshot;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.rest.Category;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class BookSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Book book = new Book("Learn DSA", "Author", Category.TECHNICAL);
+        Book book2 = new Book("Po\u00e8mes", "Auteur", Category.POETRY);
+        Path path = write(List.of(book, book2), 1 << 20);
+        try (BookSnapshot snapshot = BookSnapshot.open(path)) {
+            assertEquals(2, snapshot.size());
+            List<Book> books = new ArrayList<>();
+            snapshot.forEach(books::add);
+            assertEquals(2, books.size());
+            assertBook(book, books.get(0));
+            assertBook(book2, books.get(1));
+        }
+    }
+
+    @Test
+    public void testWriteAcrossWindows() throws IOException {
+        List<Book> books = new ArrayList<>();
+        Category[] categories = Category.values();
+        for (int i = 0; i < 5000; i++) {
+            books.add(new Book("Book" + i, "Author" + (i % 50), categories[i % categories.length]));
+        }
+        Path path = write(books, 100);
+        try (BookSnapshot snapshot = BookSnapshot.open(path)) {
+            assertEquals(books.size(), snapshot.size());
+            int[] read = {0};
+            snapshot.forEach(book -> assertBook(books.get(read[0]++), book));
+            assertEquals(books.size(), read[0]);
+        }
+    }
+
+    @Test
+    public void testGetById() throws IOException {
+        List<Book> books = new ArrayList<>();
+        Category[] categories = Category.values();
+        for (int i = 0; i < 3000; i++) {
+            // random ids are not written in order and have both signs
+            Book book = i % 2 == 0 ? new Book("Book" + i, "Author", categories[i % categories.length])
+                    : new Book(UUID.randomUUID(), "Book" + i, "Author", categories[i % categories.length].getValue());
+            books.add(book);
+        }
+        try (BookSnapshot snapshot = BookSnapshot.open(write(books, 1000))) {
+            for (Book book : books) {
+                assertBook(book, snapshot.get(book.getUuid()).orElseThrow());
+            }
+            assertFalse(snapshot.get(UUID.randomUUID()).isPresent());
+        }
+    }
+
+    @Test
+    public void testEmptySnapshot() throws IOException {
+        try (BookSnapshot snapshot = BookSnapshot.open(write(List.of(), 1 << 20))) {
+            assertEquals(0, snapshot.size());
+            snapshot.forEach(book -> fail("Expected no book"));
+            assertFalse(snapshot.get(UUID.randomUUID()).isPresent());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenIncompleteSnapshot() throws IOException {
+        Path path = write(List.of(new Book("Book1", "Author", Category.TECHNICAL)), 1 << 20);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 4));
+        BookSnapshot.open(path);
+    }
+
+    private Path write(List<Book> books, int windowSize) throws IOException {
+        Path path = folder.newFile().toPath();
+        try (BookSnapshotWriter writer = new BookSnapshotWriter(path, windowSize)) {
+            for (Book book : books) {
+                writer.write(book);
+            }
+        }
+        return path;
+    }
+
+    private static void assertBook(Book expected, Book actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getAuthor(), actual.getAuthor());
+        assertEquals(expected.getCategory(), actual.getCategory());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.bookstore.transformer;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.rest.Category;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BookExportWriterTest {
+
+    @Test
+    public void testWriteNdjson() throws IOException {
+        Book book = new Book("Book1", "Author", Category.SCIENCE_FICTION);
+        Book book2 = new Book("Book2", "Author", Category.POETRY);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (BookExportWriter writer = BookExportWriter.of(BookExportWriter.Format.NDJSON, outputStream)) {
+            writer.write(book);
+            writer.write(book2);
+        }
+        String ndjson = outputStream.toString(StandardCharsets.UTF_8);
+        assertTrue(ndjson.endsWith("}\n"));
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"id\":\"" + book.getId() + "\",\"name\":\"Book1\",\"author\":\"Author\",\"category\":\"Science Fiction\"}", lines[0]);
+    }
+
+    @Test
+    public void testWriteCsv() throws IOException {
+        Book book = new Book("Learn \"DSA\", 2nd edition", "Author", Category.TECHNICAL);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (BookExportWriter writer = BookExportWriter.of(BookExportWriter.Format.CSV, outputStream)) {
+            writer.write(book);
+        }
+        assertEquals("id,name,author,category\n" + book.getId() + ",\"Learn \"\"DSA\"\", 2nd edition\",Author,Technical\n",
+                outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownFormat() {
+        BookExportWriter.Format.fromValue("xml");
+    }
+}
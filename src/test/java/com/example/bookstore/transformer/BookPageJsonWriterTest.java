@@ -0,0 +1,69 @@
+package com.example.bookstore.transformer;
+
+import com.example.bookstore.model.Book;
+import com.example.bookstore.rest.Category;
+import com.example.bookstore.rest.PagedBookResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class BookPageJsonWriterTest {
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<Book> books = List.of(new Book("Book \"1\"", "Author", Category.SCIENCE_FICTION),
+            new Book("B\u00f6\u00f6k 2", "Author", Category.POETRY));
+
+    @Test
+    public void testWriteIsSameAsRestModel() throws IOException {
+        BookPageResponse response = new BookPageResponse(books);
+        response.setCurrentPage(0);
+        response.setTotalPages(1);
+        response.setTotalItems(2L);
+
+        PagedBookResponse restResponse = new PagedBookResponse();
+        restResponse.setBooks(ModelTransformer.fromModelListToRestList.apply(books));
+        restResponse.setCurrentPage(0);
+        restResponse.setTotalPages(1);
+        restResponse.setTotalItems(2L);
+
+        assertEquals(objectMapper.writeValueAsString(restResponse), write(response));
+    }
+
+    @Test
+    public void testWriteKeysetIsSameAsRestModel() throws IOException {
+        BookPageResponse response = new BookPageResponse(List.of());
+        response.setHasNext(false);
+        response.setTotalsApproximate(true);
+        response.setNextCursor("cursor");
+
+        PagedBookResponse restResponse = new PagedBookResponse();
+        restResponse.setBooks(List.of());
+        restResponse.setHasNext(false);
+        restResponse.setTotalsApproximate(true);
+        restResponse.setNextCursor("cursor");
+
+        assertEquals(objectMapper.writeValueAsString(restResponse), write(response));
+    }
+
+    @Test
+    public void testResponseIsSerializableByObjectMapper() throws IOException {
+        BookPageResponse response = new BookPageResponse(books);
+        response.setHasNext(true);
+        assertEquals(write(response), objectMapper.writeValueAsString(response));
+    }
+
+    private String write(BookPageResponse response) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+            BookPageJsonWriter.write(response, generator);
+        }
+        return writer.toString();
+    }
+}
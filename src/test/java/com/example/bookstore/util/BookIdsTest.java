@@ -0,0 +1,48 @@
+package com.example.bookstore.util;
+
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BookIdsTest {
+
+    @Test
+    public void testNextIsTimeOrderedUuid() {
+        long start = System.currentTimeMillis();
+        UUID id = BookIds.next();
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertTrue(id.getMostSignificantBits() >>> 16 >= start);
+    }
+
+    @Test
+    public void testNextIsIncreasing() {
+        UUID previous = BookIds.next();
+        for (int i = 0; i < 100000; i++) {
+            UUID id = BookIds.next();
+            assertTrue(Long.compareUnsigned(id.getMostSignificantBits(), previous.getMostSignificantBits()) > 0);
+            assertTrue(id.toString().compareTo(previous.toString()) > 0);
+            previous = id;
+        }
+    }
+
+    @Test
+    public void testParse() {
+        UUID id = BookIds.next();
+        assertEquals(id, BookIds.parse(id.toString()));
+        assertNull(BookIds.parse(null));
+        assertNull(BookIds.parse("id"));
+        assertNull(BookIds.parse("zzzzzzzz-zzzz-zzzz-zzzz-zzzzzzzzzzzz"));
+    }
+
+    @Test
+    public void testCanonical() {
+        UUID id = BookIds.next();
+        assertEquals(id.toString(), BookIds.canonical(id.toString().toUpperCase()));
+        assertEquals("abc", BookIds.canonical("abc"));
+    }
+}
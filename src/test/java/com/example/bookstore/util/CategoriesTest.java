@@ -0,0 +1,56 @@
+package com.example.bookstore.util;
+
+import com.example.bookstore.rest.Category;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CategoriesTest {
+
+    @Test
+    public void testCodes() {
+        Set<Byte> codes = new HashSet<>();
+        for (Category category : Category.values()) {
+            byte code = Categories.code(category);
+            assertTrue(code > 0);
+            assertTrue(codes.add(code));
+            assertEquals(category, Categories.fromCode(code));
+        }
+        assertEquals(1, Categories.code(Category.TECHNICAL));
+        assertEquals(5, Categories.code(Category.SCIENCE_FICTION));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownCode() {
+        Categories.fromCode((byte) 100);
+    }
+
+    @Test
+    public void testLookups() {
+        assertEquals(Category.SCIENCE_FICTION, Categories.fromValue("Science Fiction"));
+        assertNull(Categories.fromValue("science fiction"));
+        assertNull(Categories.fromValue(null));
+        assertEquals(Category.SCIENCE_FICTION, Categories.fromName("science_fiction"));
+        assertEquals(Category.SCIENCE_FICTION, Categories.fromName("SCIENCE FICTION"));
+        assertEquals(Category.POETRY, Categories.fromName("poetry"));
+        assertNull(Categories.fromName("Unknown"));
+    }
+
+    @Test
+    public void testMatching() {
+        assertEquals(List.of(Category.POETRY),
+                Categories.matching(new SpecSearchCriteria("category", SearchOperation.STARTS_WITH, "Poe")));
+        assertEquals(List.of(Category.LITERATURE, Category.SCIENCE_FICTION),
+                Categories.matching(new SpecSearchCriteria("category", SearchOperation.LIKE, "%i%e%")));
+        assertEquals(List.of(Category.TECHNICAL, Category.HUMOUR),
+                Categories.matching(new SpecSearchCriteria("category", SearchOperation.IN, List.of("Humour", "Technical"))));
+        assertEquals(4, Categories.matching(new SpecSearchCriteria("category", SearchOperation.NEGATION, "Poetry")).size());
+        assertTrue(Categories.matching(new SpecSearchCriteria("category", SearchOperation.EQUALITY, "Unknown")).isEmpty());
+    }
+}
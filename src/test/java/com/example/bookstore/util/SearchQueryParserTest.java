@@ -0,0 +1,129 @@
+package com.example.bookstore.util;
+
+import com.example.bookstore.exception.BookStoreException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SearchQueryParserTest {
+
+    @Test
+    public void testParseEquality(){
+        SpecSearchCriteria criteria = (SpecSearchCriteria) SearchQueryParser.parse("name:Learn Algorithms");
+        assertEquals("name", criteria.getKey());
+        assertEquals(SearchOperation.EQUALITY, criteria.getOperation());
+        assertEquals("Learn Algorithms", criteria.getValue());
+    }
+
+    @Test
+    public void testParseLowerCaseKeywordIsPartOfValue(){
+        SpecSearchCriteria criteria = (SpecSearchCriteria) SearchQueryParser.parse("name:Pride and Prejudice");
+        assertEquals("Pride and Prejudice", criteria.getValue());
+    }
+
+    @Test
+    public void testParseAndTakesPrecedenceOverOr(){
+        CompositeSearchExpression expression = (CompositeSearchExpression) SearchQueryParser.parse("name!:x OR name>=A AND name<C");
+        assertEquals(CompositeSearchExpression.Operator.OR, expression.getOperator());
+        assertEquals(SearchOperation.NEGATION, ((SpecSearchCriteria) expression.getOperands().get(0)).getOperation());
+        CompositeSearchExpression and = (CompositeSearchExpression) expression.getOperands().get(1);
+        assertEquals(CompositeSearchExpression.Operator.AND, and.getOperator());
+        assertEquals(SearchOperation.GREATER_THAN_OR_EQUAL, ((SpecSearchCriteria) and.getOperands().get(0)).getOperation());
+        assertEquals(SearchOperation.LESS_THAN, ((SpecSearchCriteria) and.getOperands().get(1)).getOperation());
+    }
+
+    @Test
+    public void testShape(){
+        List<Object> values = new ArrayList<>();
+        String shape = SearchQueryParser.shape(" name:Learn*  AND (author:\"Chetan Bhatt\" OR category:[Technical, Poetry])", values);
+        assertEquals("name STARTS_WITH ? AND (author EQUALITY ? OR category IN ?)", shape);
+        assertEquals(List.of("Learn", "Chetan Bhatt", List.of("Technical", "Poetry")), values);
+    }
+
+    @Test
+    public void testShapeValuesAreBoundAsParsed(){
+        String query = "name~*a_b* OR (author:Pride and Prejudice AND name:*DSA)";
+        List<Object> values = new ArrayList<>();
+        SearchQueryParser.shape(query, values);
+        CompositeSearchExpression expression = (CompositeSearchExpression) SearchQueryParser.parse(query);
+        CompositeSearchExpression group = (CompositeSearchExpression) expression.getOperands().get(1);
+        assertEquals(List.of(((SpecSearchCriteria) expression.getOperands().get(0)).getValue(),
+                ((SpecSearchCriteria) group.getOperands().get(0)).getValue(),
+                ((SpecSearchCriteria) group.getOperands().get(1)).getValue()), values);
+    }
+
+    @Test(expected = BookStoreException.class)
+    public void testShapeOfInvalidQuery(){
+        SearchQueryParser.shape("name:Learn AND (isbn:123)", new ArrayList<>());
+    }
+
+    @Test
+    public void testParseGroupPrefixAndIn(){
+        CompositeSearchExpression expression = (CompositeSearchExpression) SearchQueryParser
+                .parse("name:Learn* AND (author:\"Chetan Bhatt\" OR category:[Technical, Poetry])");
+        assertEquals(CompositeSearchExpression.Operator.AND, expression.getOperator());
+        SpecSearchCriteria prefix = (SpecSearchCriteria) expression.getOperands().get(0);
+        assertEquals(SearchOperation.STARTS_WITH, prefix.getOperation());
+        assertEquals("Learn", prefix.getValue());
+        CompositeSearchExpression group = (CompositeSearchExpression) expression.getOperands().get(1);
+        assertEquals("Chetan Bhatt", ((SpecSearchCriteria) group.getOperands().get(0)).getValue());
+        SpecSearchCriteria in = (SpecSearchCriteria) group.getOperands().get(1);
+        assertEquals(SearchOperation.IN, in.getOperation());
+        assertEquals(List.of("Technical", "Poetry"), in.getValue());
+    }
+
+    @Test
+    public void testParseLikeEscapesValue(){
+        SpecSearchCriteria criteria = (SpecSearchCriteria) SearchQueryParser.parse("name~*a_b*");
+        assertEquals(SearchOperation.LIKE, criteria.getOperation());
+        assertEquals("%a\\_b%", criteria.getValue());
+    }
+
+    @Test
+    public void testParseUnknownKey(){
+        try {
+            SearchQueryParser.parse("isbn:123");
+        } catch (BookStoreException e) {
+            assertTrue(e.getMessage().contains("isbn"));
+            return;
+        }
+        throw new AssertionError("Expected BookStoreException");
+    }
+
+    @Test
+    public void testParseId(){
+        SpecSearchCriteria criteria = (SpecSearchCriteria) SearchQueryParser.parse("id:[0190f4f2-6a0c-7d45-9e3b-1c2d3e4f5a6b, abc]");
+        assertEquals(SearchOperation.IN, criteria.getOperation());
+        assertEquals(List.of(UUID.fromString("0190f4f2-6a0c-7d45-9e3b-1c2d3e4f5a6b")), BookSpecification.ids(criteria));
+    }
+
+    @Test(expected = BookStoreException.class)
+    public void testParseIdPrefix(){
+        SearchQueryParser.parse("id:abc*");
+    }
+
+    @Test(expected = BookStoreException.class)
+    public void testParseIdRange(){
+        SearchQueryParser.parse("id>0190f4f2-6a0c-7d45-9e3b-1c2d3e4f5a6b");
+    }
+
+    @Test(expected = BookStoreException.class)
+    public void testParseMissingValue(){
+        SearchQueryParser.parse("name:");
+    }
+
+    @Test(expected = BookStoreException.class)
+    public void testParseUnbalancedParenthesis(){
+        SearchQueryParser.parse("(name:abc");
+    }
+
+    @Test(expected = BookStoreException.class)
+    public void testParseMissingOperator(){
+        SearchQueryParser.parse("name abc");
+    }
+}